@@ -0,0 +1,726 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+/**
+ *  A sorted map stored as a B+-tree. Every node holds up to ORDER - 1 keys
+ *  in an array, so a lookup binary-searches a few wide nodes instead of
+ *  following one pointer per comparison, as BSTMap does. Inner nodes hold
+ *  only separator keys and up to ORDER children; the mappings themselves
+ *  live in the leaves, which are linked left to right, so iterating in key
+ *  order reads each leaf's arrays front to back and then steps to the next
+ *  leaf.
+ *
+ *  Every node except the root stays at least half full: put splits full
+ *  nodes, and remove refills a node that falls below half by borrowing from
+ *  a sibling or merging with it. All leaves are at the same depth, which is
+ *  O(log n / log ORDER). No operation recurses; put and remove record the
+ *  path they walk and repair it bottom-up.
+ *  @author Hao Chen
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_ORDER = 64;
+
+    private static final int MIN_ORDER = 4;
+
+    /* putAll inserts one at a time when the tree has more than this many
+     * times as many entries as the batch; otherwise it rebuilds. */
+    private static final int BULK_REBUILD_RATIO = 16;
+
+    /* Every node below the root has at least two children, so the depth of
+     * a tree with an int size is below this. */
+    private static final int MAX_HEIGHT = 32;
+
+    /* Node arrays have room for ORDER keys, one more than a node may keep,
+     * so an insert can go in first and the split happen after. */
+    private abstract static class Node {
+        final Object[] keys;
+        int count;
+
+        Node(int order) {
+            keys = new Object[order];
+        }
+    }
+
+    private static final class Leaf extends Node {
+        final Object[] values;
+        Leaf next;
+
+        Leaf(int order) {
+            super(order);
+            values = new Object[order];
+        }
+    }
+
+    /* CHILDREN[i] holds the keys from KEYS[i - 1], inclusive, up to KEYS[i]. */
+    private static final class Inner extends Node {
+        final Node[] children;
+
+        Inner(int order) {
+            super(order);
+            children = new Node[order + 1];
+        }
+    }
+
+    /* Instance Variables */
+    private final int order;
+    /* Fewest keys a node other than the root may hold. */
+    private final int minKeys;
+    private Node root;
+    /* Leftmost leaf, where iteration starts. */
+    private Leaf first;
+    private int size;
+    /* Incremented on every structural change, so iterators can fail fast. */
+    private int modCount;
+
+    /* Scratch space for put and remove: the inner nodes on the path walked
+     * and the child taken at each. */
+    private final Inner[] path = new Inner[MAX_HEIGHT];
+    private final int[] childIndex = new int[MAX_HEIGHT];
+
+
+    /** Constructors */
+    public BPlusTreeMap() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * Creates an empty tree whose nodes have at most ORDER children or
+     * ORDER - 1 entries. Wider nodes make the tree shallower at the cost of
+     * shifting more array elements on every insert and remove.
+     *
+     * @param order the fanout, at least 4
+     */
+    public BPlusTreeMap(int order) {
+        if (order < MIN_ORDER) {
+            throw new IllegalArgumentException("order must be at least " + MIN_ORDER);
+        }
+        this.order = order;
+        this.minKeys = (order - 1) / 2;
+        root = first = new Leaf(order);
+    }
+
+    @Override
+    public void clear() {
+        root = first = new Leaf(order);
+        size = 0;
+        modCount += 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K key, Object other) {
+        return key.compareTo((K) other);
+    }
+
+    /* Returns the index of KEY among NODE's keys, or -(insertion point + 1)
+     * if it is not there. */
+    private int search(Node node, K key) {
+        int lo = 0;
+        int hi = node.count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(key, node.keys[mid]);
+            if (cmp > 0) {
+                lo = mid + 1;
+            } else if (cmp < 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /* Returns the index of the child of NODE whose range holds KEY. */
+    private int childFor(Inner node, K key) {
+        int i = search(node, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private Leaf findLeaf(K key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childFor(inner, key)];
+        }
+        return (Leaf) node;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return search(findLeaf(key), key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Leaf leaf = findLeaf(key);
+        int i = search(leaf, key);
+        return i >= 0 ? (V) leaf.values[i] : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /* Walks down to KEY's leaf, recording the path, and returns the depth
+     * of the leaf. */
+    private int descend(K key) {
+        int depth = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int c = childFor(inner, key);
+            path[depth] = inner;
+            childIndex[depth] = c;
+            depth += 1;
+            node = inner.children[c];
+        }
+        return depth;
+    }
+
+    /* Returns the leaf at the end of the first DEPTH steps of the path. */
+    private Leaf leafAt(int depth) {
+        return depth == 0 ? (Leaf) root : (Leaf) path[depth - 1].children[childIndex[depth - 1]];
+    }
+
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
+        }
+    }
+
+    private static void insertAt(Object[] array, int count, int i, Object x) {
+        System.arraycopy(array, i, array, i + 1, count - i);
+        array[i] = x;
+    }
+
+    private static void removeAt(Object[] array, int count, int i) {
+        System.arraycopy(array, i + 1, array, i, count - i - 1);
+        array[count - 1] = null;
+    }
+
+    /* Inserts into KEY's leaf. A leaf that fills up splits in two, which adds
+     * a separator to its parent, which may split in turn, up to a new root. */
+    @Override
+    public void put(K key, V value) {
+        int depth = descend(key);
+        Leaf leaf = leafAt(depth);
+        int i = search(leaf, key);
+        if (i >= 0) {
+            leaf.values[i] = value;
+            clearPath(depth);
+            return;
+        }
+        i = -i - 1;
+        insertAt(leaf.keys, leaf.count, i, key);
+        insertAt(leaf.values, leaf.count, i, value);
+        leaf.count += 1;
+        size += 1;
+        modCount += 1;
+        if (leaf.count < order) {
+            clearPath(depth);
+            return;
+        }
+
+        Node split = splitLeaf(leaf);
+        Object separator = split.keys[0];
+        while (split != null && depth > 0) {
+            depth -= 1;
+            Inner parent = path[depth];
+            path[depth] = null;
+            int c = childIndex[depth];
+            insertAt(parent.keys, parent.count, c, separator);
+            insertAt(parent.children, parent.count + 1, c + 1, split);
+            parent.count += 1;
+            if (parent.count < order) {
+                split = null;
+            } else {
+                separator = parent.keys[parent.count / 2];
+                split = splitInner(parent);
+            }
+        }
+        clearPath(depth);
+        if (split != null) {
+            Inner newRoot = new Inner(order);
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+    }
+
+    /* Moves the upper half of the full LEAF into a new leaf linked after it,
+     * and returns the new leaf. */
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(order);
+        int keep = leaf.count / 2;
+        right.count = leaf.count - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, right.count);
+        System.arraycopy(leaf.values, keep, right.values, 0, right.count);
+        for (int i = keep; i < leaf.count; i++) {
+            leaf.keys[i] = null;
+            leaf.values[i] = null;
+        }
+        leaf.count = keep;
+        right.next = leaf.next;
+        leaf.next = right;
+        return right;
+    }
+
+    /* Moves the keys and children above the middle key of the full NODE into
+     * a new node and returns it. The middle key, which the caller has taken
+     * as the separator, is dropped from both. */
+    private Inner splitInner(Inner node) {
+        Inner right = new Inner(order);
+        int mid = node.count / 2;
+        right.count = node.count - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.count + 1);
+        for (int i = mid; i < node.count; i++) {
+            node.keys[i] = null;
+            node.children[i + 1] = null;
+        }
+        node.count = mid;
+        return right;
+    }
+
+    /* Returns a live view of the keys in increasing order. It copies nothing,
+     * and removing a key from it removes the key's mapping from this map. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return BPlusTreeMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return containsKey((K) o);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                if (!containsKey((K) o)) {
+                    return false;
+                }
+                BPlusTreeMap.this.remove((K) o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                BPlusTreeMap.this.clear();
+            }
+        };
+    }
+
+    /* Calls ACTION on every mapping in increasing key order, walking the
+     * leaves. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int expectedModCount = modCount;
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.count; i++) {
+                action.accept((K) leaf.keys[i], (V) leaf.values[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /* Copies every mapping in M into this map. Unless the batch is small
+     * next to the tree, the new entries are sorted, merged with the tree's
+     * own in key order, and the tree is rebuilt bottom-up with full nodes in
+     * linear time. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (m.size() < size / BULK_REBUILD_RATIO) {
+            for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        List<Map.Entry<? extends K, ? extends V>> incoming = new ArrayList<>(m.entrySet());
+        if (!(m instanceof SortedMap) || ((SortedMap<?, ?>) m).comparator() != null) {
+            incoming.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+        }
+
+        Object[] keys = new Object[size + incoming.size()];
+        Object[] values = new Object[keys.length];
+        int n = 0;
+        Leaf leaf = first;
+        int i = 0;
+        int j = 0;
+        while (leaf != null || j < incoming.size()) {
+            if (leaf != null && i == leaf.count) {
+                leaf = leaf.next;
+                i = 0;
+                continue;
+            }
+            int cmp;
+            if (leaf == null) {
+                cmp = 1;
+            } else if (j == incoming.size()) {
+                cmp = -1;
+            } else {
+                cmp = compare((K) leaf.keys[i], incoming.get(j).getKey());
+            }
+            if (cmp < 0) {
+                keys[n] = leaf.keys[i];
+                values[n] = leaf.values[i];
+                n += 1;
+                i += 1;
+            } else {
+                Map.Entry<? extends K, ? extends V> entry = incoming.get(j);
+                if (n > 0 && compare(entry.getKey(), keys[n - 1]) == 0) {
+                    // Keys that compare equal in the batch: the later one wins.
+                    values[n - 1] = entry.getValue();
+                } else {
+                    keys[n] = entry.getKey();
+                    values[n] = entry.getValue();
+                    n += 1;
+                }
+                if (cmp == 0) {
+                    i += 1;
+                }
+                j += 1;
+            }
+        }
+        build(keys, values, n);
+    }
+
+    /* Replaces the tree with one holding the N mappings in KEYS and VALUES,
+     * which are in increasing key order. Leaves are filled as evenly as
+     * possible with up to ORDER - 1 entries each, then each level of inner
+     * nodes is built over the one below. */
+    private void build(Object[] keys, Object[] values, int n) {
+        modCount += 1;
+        size = n;
+        if (n == 0) {
+            root = first = new Leaf(order);
+            return;
+        }
+        int count = (n + order - 2) / (order - 1);
+        Node[] level = new Node[count];
+        Object[] lowest = new Object[count];
+        Leaf previous = null;
+        int from = 0;
+        for (int l = 0; l < count; l++) {
+            int to = (int) ((long) n * (l + 1) / count);
+            Leaf leaf = new Leaf(order);
+            leaf.count = to - from;
+            System.arraycopy(keys, from, leaf.keys, 0, leaf.count);
+            System.arraycopy(values, from, leaf.values, 0, leaf.count);
+            if (previous == null) {
+                first = leaf;
+            } else {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[l] = leaf;
+            lowest[l] = keys[from];
+            from = to;
+        }
+        while (count > 1) {
+            int parents = (count + order - 1) / order;
+            Node[] upper = new Node[parents];
+            Object[] upperLowest = new Object[parents];
+            from = 0;
+            for (int p = 0; p < parents; p++) {
+                int to = (int) ((long) count * (p + 1) / parents);
+                Inner inner = new Inner(order);
+                for (int c = from; c < to; c++) {
+                    inner.children[c - from] = level[c];
+                    if (c > from) {
+                        inner.keys[c - from - 1] = lowest[c];
+                    }
+                }
+                inner.count = to - from - 1;
+                upper[p] = inner;
+                upperLowest[p] = lowest[from];
+                from = to;
+            }
+            level = upper;
+            lowest = upperLowest;
+            count = parents;
+        }
+        root = level[0];
+    }
+
+    /* Removes KEY from its leaf. A node left less than half full borrows an
+     * entry from a sibling that can spare one, or else merges with it,
+     * which takes a separator out of the parent, which may then need fixing
+     * in turn. A root left with a single child is replaced by the child. */
+    @Override
+    public V remove(K key) {
+        return removeMapping(key, null, false);
+    }
+
+    /* Removes KEY only if it maps to a value equal to VALUE, finding its
+     * entry with the same single descent. */
+    @Override
+    public V remove(K key, V value) {
+        return removeMapping(key, value, true);
+    }
+
+    /* Removes KEY, or does nothing if MATCHVALUE is set and KEY does not map
+     * to a value equal to VALUE. Returns the value removed, or null. */
+    @SuppressWarnings("unchecked")
+    private V removeMapping(K key, V value, boolean matchValue) {
+        int depth = descend(key);
+        Leaf leaf = leafAt(depth);
+        int i = search(leaf, key);
+        if (i < 0 || matchValue && !Objects.equals(leaf.values[i], value)) {
+            clearPath(depth);
+            return null;
+        }
+        V removed = (V) leaf.values[i];
+        removeAt(leaf.keys, leaf.count, i);
+        removeAt(leaf.values, leaf.count, i);
+        leaf.count -= 1;
+        size -= 1;
+        modCount += 1;
+
+        Node node = leaf;
+        while (depth > 0 && node.count < minKeys) {
+            depth -= 1;
+            Inner parent = path[depth];
+            path[depth] = null;
+            refill(parent, childIndex[depth]);
+            node = parent;
+        }
+        clearPath(depth);
+        if (root.count == 0 && root instanceof Inner) {
+            root = ((Inner) root).children[0];
+        }
+        return removed;
+    }
+
+    /* Brings PARENT's child C, which has one key too few, back to half full. */
+    private void refill(Inner parent, int c) {
+        Node child = parent.children[c];
+        Node left = c > 0 ? parent.children[c - 1] : null;
+        Node right = c < parent.count ? parent.children[c + 1] : null;
+        if (left != null && left.count > minKeys) {
+            borrowFromLeft(parent, c, left, child);
+        } else if (right != null && right.count > minKeys) {
+            borrowFromRight(parent, c, child, right);
+        } else if (left != null) {
+            merge(parent, c - 1, left, child);
+        } else {
+            merge(parent, c, child, right);
+        }
+    }
+
+    /* Moves the last entry of LEFT to the front of its right neighbor CHILD,
+     * PARENT's child C, rotating through the separator for inner nodes. */
+    private void borrowFromLeft(Inner parent, int c, Node left, Node child) {
+        int last = left.count - 1;
+        if (child instanceof Leaf) {
+            insertAt(child.keys, child.count, 0, left.keys[last]);
+            insertAt(((Leaf) child).values, child.count, 0, ((Leaf) left).values[last]);
+            ((Leaf) left).values[last] = null;
+            parent.keys[c - 1] = left.keys[last];
+        } else {
+            Inner from = (Inner) left;
+            insertAt(child.keys, child.count, 0, parent.keys[c - 1]);
+            insertAt(((Inner) child).children, child.count + 1, 0, from.children[left.count]);
+            from.children[left.count] = null;
+            parent.keys[c - 1] = left.keys[last];
+        }
+        left.keys[last] = null;
+        left.count -= 1;
+        child.count += 1;
+    }
+
+    /* Moves the first entry of RIGHT to the end of its left neighbor CHILD,
+     * PARENT's child C, rotating through the separator for inner nodes. */
+    private void borrowFromRight(Inner parent, int c, Node child, Node right) {
+        if (child instanceof Leaf) {
+            child.keys[child.count] = right.keys[0];
+            ((Leaf) child).values[child.count] = ((Leaf) right).values[0];
+            removeAt(right.keys, right.count, 0);
+            removeAt(((Leaf) right).values, right.count, 0);
+            parent.keys[c] = right.keys[0];
+        } else {
+            Inner from = (Inner) right;
+            child.keys[child.count] = parent.keys[c];
+            ((Inner) child).children[child.count + 1] = from.children[0];
+            parent.keys[c] = right.keys[0];
+            removeAt(right.keys, right.count, 0);
+            removeAt(from.children, right.count + 1, 0);
+        }
+        right.count -= 1;
+        child.count += 1;
+    }
+
+    /* Appends RIGHT, PARENT's child I + 1, to LEFT, its child I, and drops
+     * RIGHT and the separator between them from PARENT. */
+    private void merge(Inner parent, int i, Node left, Node right) {
+        if (left instanceof Leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            System.arraycopy(((Leaf) right).values, 0, ((Leaf) left).values, left.count, right.count);
+            left.count += right.count;
+            ((Leaf) left).next = ((Leaf) right).next;
+        } else {
+            left.keys[left.count] = parent.keys[i];
+            System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+            System.arraycopy(((Inner) right).children, 0, ((Inner) left).children, left.count + 1,
+                right.count + 1);
+            left.count += right.count + 1;
+        }
+        removeAt(parent.keys, parent.count, i);
+        removeAt(parent.children, parent.count + 1, i + 1);
+        parent.count -= 1;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new LeafIterator(first, 0, null);
+    }
+
+    /* Returns the keys from LO to HI inclusive, in increasing order. Each
+     * iterator walks down to LO's leaf and then along the leaves, so visiting
+     * K keys costs O(log n + K). Like iterator(), it fails fast if the map
+     * changes structurally. */
+    public Iterable<K> range(K lo, K hi) {
+        return () -> {
+            Leaf leaf = findLeaf(lo);
+            int i = search(leaf, lo);
+            return new LeafIterator(leaf, i >= 0 ? i : -i - 1, hi);
+        };
+    }
+
+    /* Walks the leaves left to right. Throws ConcurrentModificationException
+     * if the map changes structurally during iteration. */
+    private class LeafIterator implements Iterator<K> {
+        private Leaf leaf;
+        private int index;
+        /* Largest key to yield, or null for no bound. */
+        private final K hi;
+        private final int expectedModCount = modCount;
+
+        LeafIterator(Leaf leaf, int index, K hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            skipExhaustedLeaves();
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && (hi == null || compare(hi, leaf.keys[index]) >= 0);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = (K) leaf.keys[index];
+            index += 1;
+            skipExhaustedLeaves();
+            return key;
+        }
+    }
+
+    /* Returns the number of levels below the root. */
+    int height() {
+        int height = 0;
+        for (Node node = root; node instanceof Inner; node = ((Inner) node).children[0]) {
+            height += 1;
+        }
+        return height;
+    }
+
+    /* Returns whether the tree is a valid B+-tree: keys in order, every node
+     * but the root at least half full and none over full, all leaves at the
+     * same depth, the leaf links visiting every leaf in order, and SIZE
+     * entries. */
+    @SuppressWarnings("unchecked")
+    boolean isValid() {
+        List<Leaf> leaves = new ArrayList<>();
+        if (!check(root, null, null, height(), leaves)) {
+            return false;
+        }
+        Leaf leaf = first;
+        int entries = 0;
+        for (Leaf expected : leaves) {
+            if (leaf != expected) {
+                return false;
+            }
+            entries += leaf.count;
+            leaf = leaf.next;
+        }
+        return leaf == null && entries == size;
+    }
+
+    /* Checks the subtree at NODE, whose keys must be at least LO and below
+     * HI where those are given, and which should have DEPTH levels below it.
+     * Adds its leaves to LEAVES in order. */
+    @SuppressWarnings("unchecked")
+    private boolean check(Node node, K lo, K hi, int depth, List<Leaf> leaves) {
+        if (node.count >= order || (node != root && node.count < minKeys)
+                || (node instanceof Inner && node.count == 0)) {
+            return false;
+        }
+        for (int i = 0; i < node.count; i++) {
+            K key = (K) node.keys[i];
+            if ((lo != null && key.compareTo(lo) < 0) || (hi != null && key.compareTo(hi) >= 0)) {
+                return false;
+            }
+            if (i > 0 && compare(key, node.keys[i - 1]) <= 0) {
+                return false;
+            }
+        }
+        if (node instanceof Leaf) {
+            leaves.add((Leaf) node);
+            return depth == 0;
+        }
+        Inner inner = (Inner) node;
+        for (int c = 0; c <= node.count; c++) {
+            K childLo = c == 0 ? lo : (K) node.keys[c - 1];
+            K childHi = c == node.count ? hi : (K) node.keys[c];
+            if (!check(inner.children[c], childLo, childHi, depth - 1, leaves)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,27 +1,63 @@
 package bstmap;
 
-import java.util.HashSet;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
 
 public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
 
-    private class BSTNode {
+    /* Nodes are handed out directly by entrySet(), so they are the map's entries. */
+    private class BSTNode implements Map.Entry<K, V> {
         K key;
         V value;
         BSTNode left;
         BSTNode right;
+        /* Number of nodes in the subtree rooted here, for rank and select. */
+        int size;
         public BSTNode(K key, V value) {
             this.key = key;
             this.value = value;
             this.left = null;
             this.right = null;
+            this.size = 1;
         }
 
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
     }
 
+    /* putAll inserts one at a time when the tree has more than this many
+     * times as many entries as the batch; otherwise it rebuilds. */
+    private static final int BULK_REBUILD_RATIO = 16;
+
     private BSTNode root;
     private int size;
+    /* Incremented on every structural change, so iterators can fail fast. */
+    private int modCount;
 
     public BSTMap() {
         root = null;
@@ -31,6 +67,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     public void clear() {
         root = null;
         size = 0;
+        modCount += 1;
     }
 
     @Override
@@ -48,19 +85,19 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         return node.value;
     }
 
+    /* Returns the node holding KEY in the subtree at ROOT, or null. Walks
+     * down one path in a loop, steered by compareTo, so a lookup costs the
+     * depth of the tree rather than its size and cannot overflow the stack. */
     private BSTNode get(K key, BSTNode root) {
-        if (root == null) {
-            return null;
-        }
-
-        if (key.equals(root.key)) {
-            return root;
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
         }
-
-        BSTNode leftResult = get(key, root.left);
-        BSTNode rightResult =  get(key, root.right);
-
-        return leftResult != null ? leftResult : rightResult;
+        return null;
     }
 
     @Override
@@ -68,15 +105,25 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         return size;
     }
 
+    private int size(BSTNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /* Recomputes NODE's subtree size from its children's. */
+    private void resize(BSTNode node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
     @Override
     public void put(K key, V value) {
-        size += 1;
         BSTNode node = new BSTNode(key, value);
         root = put(node, root);
     }
 
     private BSTNode put(BSTNode node, BSTNode root) {
         if (root == null) {
+            size += 1;
+            modCount += 1;
             return node;
         }
 
@@ -88,25 +135,206 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         } else {
             root.left = put(node, root.left);
         }
+        resize(root);
         return root;
     }
 
+    /* Copies every mapping in M into this map. Unless the batch is small
+     * next to the tree, the new entries are sorted, merged with the tree's
+     * own nodes in key order, and the tree is rebuilt perfectly balanced in
+     * linear time, so even sorted input does not make it degenerate. */
     @Override
-    public Set<K> keySet() {
-        Set<K> set = new HashSet<>();
-        dfs(root, set);
-        return set;
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (m.size() < size / BULK_REBUILD_RATIO) {
+            for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        ArrayList<BSTNode> incoming = new ArrayList<>(m.size());
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            incoming.add(new BSTNode(entry.getKey(), entry.getValue()));
+        }
+        if (!(m instanceof SortedMap) || ((SortedMap<?, ?>) m).comparator() != null) {
+            incoming.sort((a, b) -> a.key.compareTo(b.key));
+        }
+
+        ArrayList<BSTNode> existing = new ArrayList<>(size);
+        for (Map.Entry<K, V> entry : entrySet()) {
+            existing.add((BSTNode) entry);
+        }
+        ArrayList<BSTNode> merged = new ArrayList<>(existing.size() + incoming.size());
+        int i = 0;
+        int j = 0;
+        while (i < existing.size() || j < incoming.size()) {
+            int cmp;
+            if (i == existing.size()) {
+                cmp = 1;
+            } else if (j == incoming.size()) {
+                cmp = -1;
+            } else {
+                cmp = existing.get(i).key.compareTo(incoming.get(j).key);
+            }
+            if (cmp < 0) {
+                merged.add(existing.get(i));
+                i += 1;
+            } else if (cmp > 0) {
+                addOrReplaceLast(merged, incoming.get(j));
+                j += 1;
+            } else {
+                existing.get(i).value = incoming.get(j).value;
+                merged.add(existing.get(i));
+                i += 1;
+                j += 1;
+            }
+        }
+        root = buildBalanced(merged, 0, merged.size() - 1);
+        size = merged.size();
+        modCount += 1;
     }
 
-    private void dfs(BSTNode root, Set<K> set) {
-        if (root == null) {
-            return;
+    /* Appends NODE to SORTED, or copies its value onto the last node if the
+     * two keys compare equal. */
+    private void addOrReplaceLast(ArrayList<BSTNode> sorted, BSTNode node) {
+        if (!sorted.isEmpty() && sorted.get(sorted.size() - 1).key.compareTo(node.key) == 0) {
+            sorted.get(sorted.size() - 1).value = node.value;
+        } else {
+            sorted.add(node);
+        }
+    }
+
+    /* Links NODES[LO..HI], which are in key order, into a perfectly balanced
+     * tree and returns its root. */
+    private BSTNode buildBalanced(ArrayList<BSTNode> nodes, int lo, int hi) {
+        if (lo > hi) {
+            return null;
         }
+        int mid = (lo + hi) >>> 1;
+        BSTNode node = nodes.get(mid);
+        node.left = buildBalanced(nodes, lo, mid - 1);
+        node.right = buildBalanced(nodes, mid + 1, hi);
+        resize(node);
+        return node;
+    }
+
+    /* Returns a live view of the keys in increasing order. It copies nothing,
+     * and removing a key from it removes the key's mapping from this map. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return BSTMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return containsKey((K) o);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                if (!containsKey((K) o)) {
+                    return false;
+                }
+                BSTMap.this.remove((K) o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                BSTMap.this.clear();
+            }
+        };
+    }
+
+    /* Returns a live view of the values, in increasing order of their keys. */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new InOrderIterator<V>() {
+                    @Override
+                    V extract(BSTNode node) {
+                        return node.value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                BSTMap.this.clear();
+            }
+        };
+    }
+
+    /* Returns a live view of the mappings in increasing key order. Its
+     * entries are the tree's own nodes, so setValue() writes through. */
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new InOrderIterator<Map.Entry<K, V>>() {
+                    @Override
+                    Map.Entry<K, V> extract(BSTNode node) {
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
 
-        set.add(root.key);
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+                Map.Entry<K, V> entry = (Map.Entry<K, V>) o;
+                BSTNode node = get(entry.getKey(), root);
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
 
-        dfs(root.left, set);
-        dfs(root.right, set);
+            @Override
+            public void clear() {
+                BSTMap.this.clear();
+            }
+        };
+    }
+
+    /* Calls ACTION on every mapping in increasing key order. */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int expectedModCount = modCount;
+        ArrayDeque<BSTNode> stack = new ArrayDeque<>();
+        BSTNode node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            action.accept(node.key, node.value);
+            node = node.right;
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
     }
 
     @Override
@@ -116,6 +344,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
             return null;
         }
         size -= 1;
+        modCount += 1;
         root = delete(node, root);
         return node.value;
     }
@@ -149,8 +378,10 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
             // insert is as new root
             newRoot.left = node.left;
             newRoot.right = node.right;
+            resize(newRoot);
             return newRoot;
         }
+        resize(root);
         return root;
     }
 
@@ -167,13 +398,188 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         if (node == null || node.value != value) {
             return null;
         }
-        size -= 1;
         return remove(key);
     }
 
     @Override
     public Iterator<K> iterator() {
-        return keySet().iterator();
+        return new InOrderIterator<K>() {
+            @Override
+            K extract(BSTNode node) {
+                return node.key;
+            }
+        };
+    }
+
+    /* Returns the smallest key. Throws NoSuchElementException if the map
+     * is empty. */
+    public K min() {
+        if (root == null) {
+            throw new NoSuchElementException("min() of an empty map");
+        }
+        BSTNode node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.key;
+    }
+
+    /* Returns the largest key. Throws NoSuchElementException if the map
+     * is empty. */
+    public K max() {
+        if (root == null) {
+            throw new NoSuchElementException("max() of an empty map");
+        }
+        BSTNode node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.key;
+    }
+
+    /* Returns the largest key less than or equal to KEY, or null if there
+     * is none. */
+    public K floorKey(K key) {
+        K floor = null;
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                return node.key;
+            } else if (cmp < 0) {
+                node = node.left;
+            } else {
+                floor = node.key;
+                node = node.right;
+            }
+        }
+        return floor;
+    }
+
+    /* Returns the smallest key greater than or equal to KEY, or null if
+     * there is none. */
+    public K ceilingKey(K key) {
+        K ceiling = null;
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                return node.key;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                ceiling = node.key;
+                node = node.left;
+            }
+        }
+        return ceiling;
+    }
+
+    /* Returns the number of keys less than KEY, which need not be in the
+     * map. Adds up the sizes of the left subtrees passed on the way down. */
+    public int rank(K key) {
+        int rank = 0;
+        BSTNode node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                return rank + size(node.left);
+            } else if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += 1 + size(node.left);
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /* Returns the key of rank I, that is, the I-th smallest key counting
+     * from 0. Throws IllegalArgumentException unless 0 <= I < size(). */
+    public K select(int i) {
+        if (i < 0 || i >= size) {
+            throw new IllegalArgumentException("select(" + i + ") of a map of size " + size);
+        }
+        BSTNode node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (i < leftSize) {
+                node = node.left;
+            } else if (i > leftSize) {
+                i -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /* Returns the keys from LO to HI inclusive, in increasing order. Each
+     * iterator starts by walking down to LO and then yields keys one at a
+     * time, so visiting K keys costs O(depth + K). Like iterator(), it fails
+     * fast if the map changes structurally. */
+    public Iterable<K> range(K lo, K hi) {
+        return () -> new InOrderIterator<K>(lo, hi) {
+            @Override
+            K extract(BSTNode node) {
+                return node.key;
+            }
+        };
+    }
+
+    /* Walks the tree in increasing key order, keeping only the path to the
+     * next node on a stack. Throws ConcurrentModificationException if the
+     * map changes structurally during iteration. */
+    private abstract class InOrderIterator<T> implements Iterator<T> {
+        private final ArrayDeque<BSTNode> stack = new ArrayDeque<>();
+        private final int expectedModCount = modCount;
+        /* Bounds on the keys visited, inclusive; null means unbounded. */
+        private final K lo;
+        private final K hi;
+
+        InOrderIterator() {
+            this(null, null);
+        }
+
+        InOrderIterator(K lo, K hi) {
+            this.lo = lo;
+            this.hi = hi;
+            pushLeftPath(root);
+        }
+
+        /* Returns what this iterator yields for NODE. */
+        abstract T extract(BSTNode node);
+
+        /* Pushes the nodes at or above LO on the leftmost path of NODE's
+         * subtree, skipping the right of any node below LO. */
+        private void pushLeftPath(BSTNode node) {
+            while (node != null) {
+                if (lo != null && node.key.compareTo(lo) < 0) {
+                    node = node.right;
+                } else {
+                    stack.push(node);
+                    node = node.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi == null || stack.peek().key.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BSTNode node = stack.pop();
+            pushLeftPath(node.right);
+            return extract(node);
+        }
     }
 
     /*prints out BSTMap in order of increasing Key.*/
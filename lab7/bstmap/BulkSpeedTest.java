@@ -0,0 +1,66 @@
+package bstmap;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeMap;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/** Compares BSTMap.putAll with a loop of single puts, on input in random
+ *  and in sorted order.
+ *  @author Hao Chen
+ */
+public class BulkSpeedTest {
+    /**
+        Requests user input and times loading N random strings of length L
+        into BSTMap both ways. ARGS is unused.
+    */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program loads random Strings of length L "
+                           + "into BSTMap with single puts and with putAll, "
+                           + "first in random order, then in sorted order.");
+        System.out.print("Please enter desired length of each string: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            HashMap<String, Integer> random = new HashMap<>();
+            for (int i = 0; i < N; i++) {
+                random.put(StringUtils.randomString(L), i);
+            }
+            TreeMap<String, Integer> sorted = new TreeMap<>(random);
+
+            timeLoad("random order", random);
+            timeLoad("sorted order", sorted);
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /* Loads ENTRIES into a BSTMap one put at a time and then with putAll,
+       printing the time of each. */
+    public static void timeLoad(String order, Map<String, Integer> entries) {
+        try {
+            BSTMap<String, Integer> looped = new BSTMap<>();
+            Stopwatch sw = new Stopwatch();
+            for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+                looped.put(entry.getKey(), entry.getValue());
+            }
+            System.out.printf("BSTMap single puts, %s: %.2f sec\n", order, sw.elapsedTime());
+        } catch (StackOverflowError e) {
+            System.out.println("BSTMap single puts, " + order + ": --Stack Overflow--");
+        }
+
+        BSTMap<String, Integer> bulk = new BSTMap<>();
+        Stopwatch sw = new Stopwatch();
+        bulk.putAll(entries);
+        System.out.printf("BSTMap putAll, %s: %.2f sec\n", order, sw.elapsedTime());
+    }
+}
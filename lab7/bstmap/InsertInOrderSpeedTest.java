@@ -33,6 +33,7 @@ public class InsertInOrderSpeedTest {
             int N = i.waitForPositiveInt(input);
             timeInOrderMap61B(new ULLMap<>(), N);
             timeInOrderMap61B(new BSTMap<>(), N);
+            timeInOrderMap61B(new RedBlackBSTMap<>(), N);
             timeInOrderTreeMap(new TreeMap<>(), N);
             timeInOrderHashMap(new HashMap<>(), N);
 
@@ -1,9 +1,13 @@
 package bstmap;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 import java.io.IOException;
 import java.util.Scanner;
+import java.util.function.Function;
 import edu.princeton.cs.algs4.Stopwatch;
 
 /** Performs a timing test on three different set implementations.
@@ -31,9 +35,17 @@ public class InsertRandomSpeedTest {
             int N = waitForPositiveInt(input);
             timeRandomMap61B(new ULLMap<>(), N, L);
             timeRandomMap61B(new BSTMap<>(), N, L);
+            timeRandomMap61B(new RedBlackBSTMap<>(), N, L);
             timeRandomTreeMap(new TreeMap<>(), N, L);
             timeRandomHashMap(new HashMap<>(), N, L);
 
+            System.out.println("Looking up each of " + N + " stored strings:");
+            timeLookupMap61B(new ULLMap<>(), N, L);
+            timeLookupMap61B(new BSTMap<>(), N, L);
+            timeLookupMap61B(new RedBlackBSTMap<>(), N, L);
+            timeLookupJavaMap("Java's Built-in TreeMap", new TreeMap<>(), N, L);
+            timeLookupJavaMap("Java's Built-in HashMap", new HashMap<>(), N, L);
+
             System.out.print("Would you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
         } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
@@ -124,6 +136,66 @@ public class InsertRandomSpeedTest {
         }
     }
 
+    /** Returns N random strings of length L. */
+    public static List<String> randomStrings(int N, int L) {
+        List<String> keys = new ArrayList<>(N);
+        for (int i = 0; i < N; i++) {
+            keys.add(StringUtils.randomString(L));
+        }
+        return keys;
+    }
+
+    /** Returns how many lookups per second GET makes, looking up each of
+     *  KEYS once. Timed with System.nanoTime, since a fast map can finish
+     *  within the Stopwatch's millisecond resolution. */
+    public static double lookupThroughput(Function<String, Integer> get, List<String> keys) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (String key : keys) {
+            if (get.apply(key) != null) {
+                found += 1;
+            }
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        if (found != keys.size()) {
+            throw new IllegalStateException("only found " + found + " of " + keys.size() + " keys");
+        }
+        return keys.size() / (elapsed / 1e9);
+    }
+
+    /**
+        Puts N random strings of length L into map, then prints how many
+        gets per second it takes to look each of them up, otherwise
+        Prints a nice message about the error
+    */
+    public static void timeLookupMap61B(Map61B<String, Integer> map, int N, int L) {
+        try {
+            List<String> keys = randomStrings(N, L);
+            for (int i = 0; i < N; i++) {
+                map.put(keys.get(i), i);
+            }
+            double rate = lookupThroughput(map::get, keys);
+            System.out.printf(map.getClass() + ": %.0f gets/sec\n", rate);
+        } catch (StackOverflowError e) {
+            printInfoOnStackOverflow(N, L);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+        Puts N random strings of length L into the java.util map NAME, then
+        prints how many gets per second it takes to look each of them up
+    */
+    public static void timeLookupJavaMap(String name, Map<String, Integer> map, int N, int L) {
+        List<String> keys = randomStrings(N, L);
+        for (int i = 0; i < N; i++) {
+            map.put(keys.get(i), i);
+        }
+        double rate = lookupThroughput(map::get, keys);
+        System.out.printf(name + ": %.0f gets/sec\n", rate);
+    }
+
     /**
         Waits for the user on other side of Scanner
         to enter a positive int,
@@ -0,0 +1,161 @@
+package bstmap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.TreeMap;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+/** Times the sorted maps on the operations that decide between them for
+ *  large ordered datasets: random gets, iterating in key order, and
+ *  loading a sorted batch all at once.
+ *  @author Hao Chen
+ */
+public class OrderedMapSpeedTest {
+    /**
+        Requests user input and times BSTMap, RedBlackBSTMap, BPlusTreeMap
+        and TreeMap on N random Integer keys. ARGS is unused.
+    */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program puts N random Integer keys into each sorted map and\n"
+                + " reports the time taken, how many gets per second it then makes on\n"
+                + " those keys in random order, how many keys per second it visits in\n"
+                + " key order, and the time taken to putAll a sorted TreeMap of them\n"
+                + " into an empty map.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter B+-tree fanout: ");
+            int order = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            List<Integer> keys = randomKeys(N, 61);
+            TreeMap<Integer, Integer> sorted = new TreeMap<>();
+            for (Integer key : keys) {
+                sorted.put(key, key);
+            }
+            timeMap61B(new BSTMap<>(), new BSTMap<>(), keys, sorted);
+            timeMap61B(new RedBlackBSTMap<>(), new RedBlackBSTMap<>(), keys, sorted);
+            try {
+                timeMap61B(new BPlusTreeMap<>(order), new BPlusTreeMap<>(order), keys, sorted);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+            timeTreeMap(keys, sorted);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns N random Integers drawn with SEED. */
+    public static List<Integer> randomKeys(int N, long seed) {
+        Random random = new Random(seed);
+        List<Integer> keys = new ArrayList<>(N);
+        for (int i = 0; i < N; i++) {
+            keys.add(random.nextInt());
+        }
+        return keys;
+    }
+
+    /** Returns KEYS in another random order, so gets do not follow the puts. */
+    private static List<Integer> shuffled(List<Integer> keys) {
+        List<Integer> order = new ArrayList<>(keys);
+        Collections.shuffle(order, new Random(62));
+        return order;
+    }
+
+    /** Returns per-second RATE of COUNT operations that took NANOS. */
+    private static double perSecond(int count, long nanos) {
+        return count / (Math.max(1, nanos) / 1e9);
+    }
+
+    /**
+        Puts KEYS into MAP, then times gets of every key and a forEach over
+        the map, and putAll of SORTED into the empty map BULK, and prints
+        the results.
+    */
+    public static void timeMap61B(Map61B<Integer, Integer> map, Map61B<Integer, Integer> bulk,
+                                  List<Integer> keys, TreeMap<Integer, Integer> sorted) {
+        try {
+            Stopwatch sw = new Stopwatch();
+            for (Integer key : keys) {
+                map.put(key, key);
+            }
+            double putTime = sw.elapsedTime();
+
+            List<Integer> order = shuffled(keys);
+            long found = 0;
+            long start = System.nanoTime();
+            for (Integer key : order) {
+                if (map.get(key) != null) {
+                    found += 1;
+                }
+            }
+            double getRate = perSecond(order.size(), System.nanoTime() - start);
+
+            long[] visited = {0};
+            start = System.nanoTime();
+            map.forEach((k, v) -> visited[0] += 1);
+            double scanRate = perSecond(map.size(), System.nanoTime() - start);
+
+            sw = new Stopwatch();
+            bulk.putAll(sorted);
+            double bulkTime = sw.elapsedTime();
+
+            if (found != keys.size() || visited[0] != map.size() || bulk.size() != sorted.size()) {
+                throw new IllegalStateException(map.getClass() + " lost keys");
+            }
+            System.out.printf("%-28s put %.2f sec, %.0f gets/sec, %.0f keys/sec in order, "
+                    + "bulk load %.2f sec\n", map.getClass().getSimpleName() + ":", putTime, getRate,
+                    scanRate, bulkTime);
+        } catch (StackOverflowError e) {
+            System.out.println("--Stack Overflow -- " + map.getClass().getSimpleName()
+                    + " couldn't hold " + keys.size() + " keys.");
+        }
+    }
+
+    /** Times TreeMap on the same operations as timeMap61B and prints the results. */
+    public static void timeTreeMap(List<Integer> keys, TreeMap<Integer, Integer> sorted) {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        Stopwatch sw = new Stopwatch();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        double putTime = sw.elapsedTime();
+
+        List<Integer> order = shuffled(keys);
+        long found = 0;
+        long start = System.nanoTime();
+        for (Integer key : order) {
+            if (map.get(key) != null) {
+                found += 1;
+            }
+        }
+        double getRate = perSecond(order.size(), System.nanoTime() - start);
+
+        long[] visited = {0};
+        start = System.nanoTime();
+        map.forEach((k, v) -> visited[0] += 1);
+        double scanRate = perSecond(map.size(), System.nanoTime() - start);
+
+        sw = new Stopwatch();
+        TreeMap<Integer, Integer> bulk = new TreeMap<>();
+        bulk.putAll(sorted);
+        double bulkTime = sw.elapsedTime();
+
+        if (found != keys.size() || visited[0] != map.size() || bulk.size() != sorted.size()) {
+            throw new IllegalStateException("TreeMap lost keys");
+        }
+        System.out.printf("%-28s put %.2f sec, %.0f gets/sec, %.0f keys/sec in order, "
+                + "bulk load %.2f sec\n", "Java's Built-in TreeMap:", putTime, getRate, scanRate, bulkTime);
+    }
+}
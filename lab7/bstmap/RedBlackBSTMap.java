@@ -0,0 +1,445 @@
+package bstmap;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ *  A BSTMap kept balanced as a left-leaning red-black tree, so get, put
+ *  and remove take O(log n) time whatever order the keys arrive in. Each
+ *  node's color is that of the link from its parent; red links always lean
+ *  left, no node has two red links, and every path from the root to a null
+ *  link crosses the same number of black links. The height is therefore at
+ *  most 2 lg n.
+ *
+ *  None of the operations recurse. Lookups walk down the tree in a loop.
+ *  put and remove record the path they walk in an array, then restore the
+ *  invariants bottom-up along it, relinking each repaired subtree into its
+ *  parent.
+ *  @author Hao Chen
+ */
+public class RedBlackBSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    /* Longest possible path: 2 lg n is below 64 for any int size. */
+    private static final int MAX_HEIGHT = 64;
+
+    private class Node {
+        K key;
+        V value;
+        Node left;
+        Node right;
+        /* Color of the link from the parent. */
+        boolean color;
+
+        Node(K key, V value, boolean color) {
+            this.key = key;
+            this.value = value;
+            this.color = color;
+        }
+    }
+
+    private Node root;
+    private int size;
+    /* Incremented on every structural change, so iterators can fail fast. */
+    private int modCount;
+
+    /* Scratch space for put and remove: the nodes on the path walked, and
+     * whether the walk went left from each. Entries are cleared as the path
+     * is repaired, so the arrays never keep removed nodes alive. */
+    @SuppressWarnings("unchecked")
+    private final Node[] path = (Node[]) new RedBlackBSTMap<?, ?>.Node[MAX_HEIGHT];
+    private final boolean[] wentLeft = new boolean[MAX_HEIGHT];
+
+    public RedBlackBSTMap() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        Node node = find(key);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    private Node find(K key) {
+        Node node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /* Walks down to KEY. If it is missing, hangs a red leaf where the walk
+     * fell off the tree and repairs the path back up to the root. */
+    @Override
+    public void put(K key, V value) {
+        int depth = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                node.value = value;
+                clearPath(depth);
+                return;
+            }
+            path[depth] = node;
+            wentLeft[depth] = cmp < 0;
+            depth += 1;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        size += 1;
+        modCount += 1;
+        root = repairPath(depth, new Node(key, value, RED));
+        root.color = BLACK;
+    }
+
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
+        }
+    }
+
+    /* Links CHILD under the deepest of the first DEPTH nodes on the path,
+     * then rebalances each node on the way up, relinking it into its parent.
+     * Returns the new root. */
+    private Node repairPath(int depth, Node child) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node node = path[i];
+            path[i] = null;
+            if (wentLeft[i]) {
+                node.left = child;
+            } else {
+                node.right = child;
+            }
+            child = balance(node);
+        }
+        return child;
+    }
+
+    private boolean isRed(Node node) {
+        return node != null && node.color == RED;
+    }
+
+    private Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        return x;
+    }
+
+    private Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        return x;
+    }
+
+    /* Swaps the colors of H and its two children. */
+    private void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    /* Restores the invariants at H, whose subtrees satisfy them, and returns
+     * the subtree's new root. */
+    private Node balance(Node h) {
+        if (isRed(h.right) && !isRed(h.left)) {
+            h = rotateLeft(h);
+        }
+        if (isRed(h.left) && isRed(h.left.left)) {
+            h = rotateRight(h);
+        }
+        if (isRed(h.left) && isRed(h.right)) {
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /* Assuming H is red and H.left and H.left.left are black, makes H.left
+     * or one of its children red. */
+    private Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /* Assuming H is red and H.right and H.right.left are black, makes
+     * H.right or one of its children red. */
+    private Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    /* Returns a live view of the keys in increasing order. It copies nothing,
+     * and removing a key from it removes the key's mapping from this map. */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return RedBlackBSTMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return containsKey((K) o);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                if (!containsKey((K) o)) {
+                    return false;
+                }
+                RedBlackBSTMap.this.remove((K) o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                RedBlackBSTMap.this.clear();
+            }
+        };
+    }
+
+    /* Calls ACTION on every mapping in increasing key order. */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int expectedModCount = modCount;
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            action.accept(node.key, node.value);
+            node = node.right;
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /* Top-down deletion: on the way down, pushes a red link ahead of the
+     * walk so that the node finally unlinked is never a lone black node,
+     * then repairs the path bottom-up like put does. A node with two
+     * children takes the key and value of its successor, and the successor
+     * is unlinked instead. */
+    @Override
+    public V remove(K key) {
+        Node found = find(key);
+        if (found == null) {
+            return null;
+        }
+        V value = found.value;
+        size -= 1;
+        modCount += 1;
+
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.color = RED;
+        }
+        int depth = 0;
+        Node h = root;
+        Node target = null;
+        while (true) {
+            if (target != null) {
+                // Unlinking the smallest node in target's right subtree.
+                if (h.left == null) {
+                    target.key = h.key;
+                    target.value = h.value;
+                    break;
+                }
+                if (!isRed(h.left) && !isRed(h.left.left)) {
+                    h = moveRedLeft(h);
+                }
+                path[depth] = h;
+                wentLeft[depth] = true;
+            } else if (key.compareTo(h.key) < 0) {
+                if (!isRed(h.left) && !isRed(h.left.left)) {
+                    h = moveRedLeft(h);
+                }
+                path[depth] = h;
+                wentLeft[depth] = true;
+            } else {
+                if (isRed(h.left)) {
+                    h = rotateRight(h);
+                }
+                if (key.compareTo(h.key) == 0 && h.right == null) {
+                    // A leaf, since a black left child would unbalance it.
+                    break;
+                }
+                if (!isRed(h.right) && !isRed(h.right.left)) {
+                    h = moveRedRight(h);
+                }
+                if (key.compareTo(h.key) == 0) {
+                    target = h;
+                }
+                path[depth] = h;
+                wentLeft[depth] = false;
+            }
+            h = wentLeft[depth] ? h.left : h.right;
+            depth += 1;
+        }
+        root = repairPath(depth, null);
+        if (root != null) {
+            root.color = BLACK;
+        }
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        Node node = find(key);
+        if (node == null || !Objects.equals(node.value, value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /* Walks the tree in increasing key order, keeping only the path to the
+     * next node on a stack. Throws ConcurrentModificationException if the
+     * map changes structurally during iteration. */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private final ArrayDeque<Node> stack = new ArrayDeque<>();
+            private final int expectedModCount = modCount;
+
+            {
+                pushLeftPath(root);
+            }
+
+            private void pushLeftPath(Node node) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.left;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public K next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = stack.pop();
+                pushLeftPath(node.right);
+                return node.key;
+            }
+        };
+    }
+
+    /* Returns the number of links on the longest path from the root. */
+    int height() {
+        int height = 0;
+        ArrayDeque<Node> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
+        }
+        while (!level.isEmpty()) {
+            height += 1;
+            for (int i = level.size(); i > 0; i--) {
+                Node node = level.poll();
+                if (node.left != null) {
+                    level.add(node.left);
+                }
+                if (node.right != null) {
+                    level.add(node.right);
+                }
+            }
+        }
+        return Math.max(0, height - 1);
+    }
+
+    /* Returns whether the tree is a valid left-leaning red-black tree: keys
+     * in order, a black root, no red right links, no two red links in a row,
+     * the same number of black links on every path, and SIZE nodes. */
+    boolean isValid() {
+        if (isRed(root)) {
+            return false;
+        }
+        int[] count = {0};
+        return check(root, null, null, count) >= 0 && count[0] == size;
+    }
+
+    /* Returns the black height of H, whose keys lie strictly between LO and
+     * HI where those are given, or -1 if the subtree breaks an invariant. */
+    private int check(Node h, K lo, K hi, int[] count) {
+        if (h == null) {
+            return 0;
+        }
+        count[0] += 1;
+        if ((lo != null && h.key.compareTo(lo) <= 0) || (hi != null && h.key.compareTo(hi) >= 0)) {
+            return -1;
+        }
+        if (isRed(h.right) || (isRed(h) && isRed(h.left))) {
+            return -1;
+        }
+        int left = check(h.left, lo, h.key, count);
+        int right = check(h.right, h.key, hi, count);
+        if (left < 0 || left != right) {
+            return -1;
+        }
+        return left + (isRed(h) ? 0 : 1);
+    }
+}
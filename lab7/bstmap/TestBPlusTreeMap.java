@@ -0,0 +1,184 @@
+package bstmap;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/** Tests of BPlusTreeMap, checking the tree's invariants as well as its mappings. */
+public class TestBPlusTreeMap {
+
+    @Test
+    public void sanityTest() {
+        BPlusTreeMap<String, Integer> b = new BPlusTreeMap<>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, 1 + i);
+            assertTrue(b.containsKey("hi" + i));
+            assertEquals(Integer.valueOf(1 + i), b.get("hi" + i));
+        }
+        assertEquals(455, b.size());
+        assertNull(b.get("hello"));
+        b.put("hi0", 0);
+        assertEquals(455, b.size());
+        assertEquals(Integer.valueOf(0), b.get("hi0"));
+        assertTrue(b.isValid());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey("hi0"));
+        assertFalse(b.iterator().hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOrderTooSmall() {
+        new BPlusTreeMap<Integer, Integer>(3);
+    }
+
+    /* Sorted input fills the tree from one side, and removing it again
+     * empties the tree through every merge. */
+    @Test
+    public void testSortedInsertAndRemove() {
+        for (int order : new int[]{4, 5, 64}) {
+            BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<>(order);
+            for (int i = 0; i < 20000; i++) {
+                b.put(i, i);
+            }
+            assertTrue(b.isValid());
+            // Every node but the root is at least half full.
+            int minChildren = (order + 1) / 2;
+            assertTrue(Math.pow(minChildren, b.height() - 1) <= 20000);
+            for (int i = 0; i < 20000; i += 2) {
+                assertEquals(Integer.valueOf(i), b.remove(i));
+            }
+            assertTrue(b.isValid());
+            for (int i = 19999; i > 0; i -= 2) {
+                assertEquals(Integer.valueOf(i), b.remove(i));
+            }
+            assertEquals(0, b.size());
+            assertTrue(b.isValid());
+            assertEquals(0, b.height());
+        }
+    }
+
+    /* Random puts and removes with a small fanout agree with TreeMap and
+     * keep the tree valid. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        for (int order : new int[]{4, 7}) {
+            BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<>(order);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(2000);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), b.remove(key));
+                } else {
+                    expected.put(key, i);
+                    b.put(key, i);
+                }
+                assertEquals(expected.size(), b.size());
+                if (i % 1000 == 0) {
+                    assertTrue(b.isValid());
+                }
+            }
+            assertTrue(b.isValid());
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(b.keySet()));
+            for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), b.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void testRange() {
+        BPlusTreeMap<Integer, String> b = new BPlusTreeMap<>(4);
+        for (int i = 0; i < 100; i += 5) {
+            b.put(i, "v" + i);
+        }
+        List<Integer> seen = new ArrayList<>();
+        for (int key : b.range(12, 40)) {
+            seen.add(key);
+        }
+        assertEquals(List.of(15, 20, 25, 30, 35, 40), seen);
+        seen.clear();
+        for (int key : b.range(-10, 7)) {
+            seen.add(key);
+        }
+        assertEquals(List.of(0, 5), seen);
+        assertFalse(b.range(96, 200).iterator().hasNext());
+        assertFalse(b.range(30, 20).iterator().hasNext());
+    }
+
+    /* putAll merges with existing entries, and an unsorted batch is sorted first. */
+    @Test
+    public void testBulkLoad() {
+        BPlusTreeMap<Integer, String> b = new BPlusTreeMap<>(8);
+        b.put(5, "old");
+        b.put(100001, "kept");
+        TreeMap<Integer, String> sorted = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            sorted.put(i, "v" + i);
+        }
+        b.putAll(sorted);
+        assertTrue(b.isValid());
+        assertEquals(100001, b.size());
+        assertEquals("v5", b.get(5));
+        assertEquals("kept", b.get(100001));
+
+        HashMap<Integer, String> unsorted = new HashMap<>();
+        for (int i = -50000; i < 50000; i += 3) {
+            unsorted.put(i, "u" + i);
+        }
+        b.putAll(unsorted);
+        assertTrue(b.isValid());
+        assertEquals(100001 + 50000 / 3 + 1, b.size());
+        assertEquals("u-2", b.get(-2));
+        assertEquals("u1", b.get(1));
+        assertEquals("v2", b.get(2));
+
+        // A small batch goes in one put at a time.
+        b.putAll(Map.of(-100000, "small"));
+        assertTrue(b.isValid());
+        assertEquals("small", b.get(-100000));
+
+        for (int i = 0; i < 100000; i++) {
+            b.remove(i);
+        }
+        assertTrue(b.isValid());
+        b.putAll(new TreeMap<>());
+        assertTrue(b.isValid());
+    }
+
+    @Test
+    public void testLiveKeySetAndForEach() {
+        BPlusTreeMap<Integer, String> b = new BPlusTreeMap<>(4);
+        Set<Integer> keys = b.keySet();
+        for (int key : new int[]{50, 20, 80, 10, 30, 70, 90, 60}) {
+            b.put(key, "v" + key);
+        }
+        assertEquals(8, keys.size());
+        assertTrue(keys.remove(50));
+        assertFalse(keys.remove(50));
+        assertEquals(7, b.size());
+        assertNull(b.remove(60, "other"));
+        assertEquals("v70", b.remove(70, new String("v70")));
+        StringBuilder visited = new StringBuilder();
+        b.forEach((key, value) -> visited.append(key).append('=').append(value).append(' '));
+        assertEquals("10=v10 20=v20 30=v30 60=v60 80=v80 90=v90 ", visited.toString());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsFast() {
+        BPlusTreeMap<String, Integer> b = new BPlusTreeMap<>();
+        b.put("a", 1);
+        b.put("b", 2);
+        for (String key : b) {
+            b.remove(key);
+        }
+    }
+}
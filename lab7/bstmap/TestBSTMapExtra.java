@@ -1,7 +1,14 @@
 package bstmap;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.TreeMap;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -113,4 +120,164 @@ public class TestBSTMapExtra {
         assertEquals(null, noChild.get('Z'));
     }
 
+    /* Views walk the tree in key order and reflect later changes. */
+    @Test
+    public void testLiveViews() {
+        BSTMap<Integer, String> b = new BSTMap<>();
+        Set<Integer> keys = b.keySet();
+        int[] order = {50, 20, 80, 10, 30, 70, 90, 60};
+        for (int key : order) {
+            b.put(key, "v" + key);
+        }
+        b.put(30, "thirty");
+        assertEquals(8, b.size());
+        assertEquals(8, keys.size());
+
+        List<Integer> seen = new ArrayList<>();
+        for (int key : b) {
+            seen.add(key);
+        }
+        assertEquals(List.of(10, 20, 30, 50, 60, 70, 80, 90), seen);
+        assertTrue(b.values().contains("thirty"));
+
+        for (Map.Entry<Integer, String> entry : b.entrySet()) {
+            entry.setValue(entry.getValue().toUpperCase());
+        }
+        assertEquals("V60", b.get(60));
+
+        assertTrue(keys.remove(50));
+        assertFalse(keys.remove(50));
+        assertEquals(7, b.size());
+
+        StringBuilder visited = new StringBuilder();
+        b.forEach((key, value) -> visited.append(key).append('=').append(value).append(' '));
+        assertEquals("10=V10 20=V20 30=THIRTY 60=V60 70=V70 80=V80 90=V90 ", visited.toString());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsFast() {
+        BSTMap<String, Integer> b = new BSTMap<>();
+        b.put("a", 1);
+        b.put("b", 2);
+        for (String key : b) {
+            b.remove(key);
+        }
+    }
+
+    /* putAll merges with existing entries and handles large sorted input. */
+    @Test
+    public void testBulkOperations() {
+        BSTMap<Integer, String> b = new BSTMap<>();
+        b.put(5, "old");
+        b.put(100001, "kept");
+        TreeMap<Integer, String> sorted = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            sorted.put(i, "v" + i);
+        }
+        b.putAll(sorted);
+        assertEquals(100001, b.size());
+        assertEquals("v5", b.get(5));
+        assertEquals("kept", b.get(100001));
+        assertEquals("v99999", b.get(99999));
+
+        Map<Integer, String> found = b.getAll(List.of(3, -1, 7));
+        assertEquals(List.of(3, 7), new ArrayList<>(found.keySet()));
+        assertEquals("v7", found.get(7));
+
+        assertEquals(2, b.removeAll(List.of(3, 7, -1)));
+        assertEquals(99999, b.size());
+        assertFalse(b.containsKey(3));
+
+        int previous = -1;
+        for (int key : b) {
+            assertTrue(key > previous);
+            previous = key;
+        }
+    }
+
+    /* Ordered queries on a small tree. */
+    @Test
+    public void testOrderedOperations() {
+        BSTMap<Integer, String> b = new BSTMap<>();
+        for (int key : new int[]{50, 20, 80, 10, 30, 70, 90, 60}) {
+            b.put(key, "v" + key);
+        }
+        assertEquals(Integer.valueOf(10), b.min());
+        assertEquals(Integer.valueOf(90), b.max());
+        assertEquals(Integer.valueOf(30), b.floorKey(30));
+        assertEquals(Integer.valueOf(30), b.floorKey(45));
+        assertNull(b.floorKey(5));
+        assertEquals(Integer.valueOf(60), b.ceilingKey(55));
+        assertNull(b.ceilingKey(95));
+        assertEquals(0, b.rank(10));
+        assertEquals(3, b.rank(45));
+        assertEquals(8, b.rank(100));
+        assertEquals(Integer.valueOf(50), b.select(3));
+        assertEquals(Integer.valueOf(90), b.select(7));
+
+        List<Integer> seen = new ArrayList<>();
+        for (int key : b.range(25, 70)) {
+            seen.add(key);
+        }
+        assertEquals(List.of(30, 50, 60, 70), seen);
+        assertFalse(b.range(91, 100).iterator().hasNext());
+        assertFalse(b.range(55, 45).iterator().hasNext());
+
+        b.clear();
+        try {
+            b.min();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        try {
+            b.select(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /* Subtree sizes stay right through puts, removes and bulk rebuilds. */
+    @Test
+    public void randomizedOrderedTest() {
+        Random random = new Random(61);
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 500; i++) {
+                int key = random.nextInt(3000);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), b.remove(key));
+                } else {
+                    expected.put(key, i);
+                    b.put(key, i);
+                }
+            }
+            TreeMap<Integer, Integer> batch = new TreeMap<>();
+            for (int i = 0; i < 100; i++) {
+                batch.put(random.nextInt(3000), -i);
+            }
+            expected.putAll(batch);
+            b.putAll(batch);
+
+            List<Integer> keys = new ArrayList<>(expected.keySet());
+            for (int i = 0; i < keys.size(); i += 7) {
+                assertEquals(keys.get(i), b.select(i));
+                assertEquals(i, b.rank(keys.get(i)));
+            }
+            int probe = random.nextInt(3000);
+            assertEquals(expected.floorKey(probe), b.floorKey(probe));
+            assertEquals(expected.ceilingKey(probe), b.ceilingKey(probe));
+            assertEquals(expected.headMap(probe).size(), b.rank(probe));
+            int hi = probe + random.nextInt(500);
+            List<Integer> range = new ArrayList<>();
+            for (int key : b.range(probe, hi)) {
+                range.add(key);
+            }
+            assertEquals(new ArrayList<>(expected.subMap(probe, true, hi, true).keySet()), range);
+        }
+        assertEquals(expected.firstKey(), b.min());
+        assertEquals(expected.lastKey(), b.max());
+    }
 }
@@ -0,0 +1,132 @@
+package bstmap;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/** Tests of RedBlackBSTMap, checking the tree's invariants as well as its mappings. */
+public class TestRedBlackBSTMap {
+
+    @Test
+    public void sanityTest() {
+        RedBlackBSTMap<String, Integer> b = new RedBlackBSTMap<>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, 1 + i);
+            assertTrue(b.containsKey("hi" + i));
+            assertEquals(Integer.valueOf(1 + i), b.get("hi" + i));
+        }
+        assertEquals(455, b.size());
+        assertNull(b.get("hello"));
+        b.put("hi0", 0);
+        assertEquals(455, b.size());
+        assertEquals(Integer.valueOf(0), b.get("hi0"));
+        assertTrue(b.isValid());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey("hi0"));
+    }
+
+    /* Sorted input, which makes BSTMap a linked list, stays within 2 lg n. */
+    @Test
+    public void testSortedInsertStaysBalanced() {
+        RedBlackBSTMap<Integer, Integer> b = new RedBlackBSTMap<>();
+        int n = 1 << 17;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        assertTrue(b.isValid());
+        assertTrue(b.height() <= 2 * 17);
+        for (int i = n - 1; i >= n / 2; i--) {
+            assertEquals(Integer.valueOf(i), b.remove(i));
+        }
+        assertEquals(n / 2, b.size());
+        assertTrue(b.isValid());
+        assertTrue(b.height() <= 2 * 16);
+    }
+
+    @Test
+    public void testRemoveCases() {
+        RedBlackBSTMap<String, String> q = new RedBlackBSTMap<>();
+        assertNull(q.remove("a"));
+        q.put("c", "a");
+        assertEquals("a", q.remove("c"));
+        assertEquals(0, q.size());
+        for (String key : List.of("c", "b", "a", "d", "e", "f")) {
+            q.put(key, key);
+        }
+        assertEquals("c", q.remove("c"));
+        assertTrue(q.isValid());
+        assertNull(q.remove("c"));
+        assertNull(q.remove("d", "x"));
+        assertEquals("d", q.remove("d", "d"));
+        assertTrue(q.isValid());
+        // The value only has to be equal, not the same object.
+        assertEquals("e", q.remove("e", new String("e")));
+        assertTrue(q.isValid());
+        assertEquals(List.of("a", "b", "f"), new ArrayList<>(q.keySet()));
+    }
+
+    /* Random puts and removes agree with TreeMap and keep the tree valid. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        RedBlackBSTMap<Integer, Integer> b = new RedBlackBSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                expected.put(key, i);
+                b.put(key, i);
+            }
+            assertEquals(expected.size(), b.size());
+            if (i % 1000 == 0) {
+                assertTrue(b.isValid());
+            }
+        }
+        assertTrue(b.isValid());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(b.keySet()));
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), b.get(entry.getKey()));
+        }
+        while (!expected.isEmpty()) {
+            int key = expected.firstKey();
+            assertEquals(expected.remove(key), b.remove(key));
+        }
+        assertTrue(b.isValid());
+        assertEquals(0, b.size());
+    }
+
+    @Test
+    public void testLiveKeySetAndForEach() {
+        RedBlackBSTMap<Integer, String> b = new RedBlackBSTMap<>();
+        Set<Integer> keys = b.keySet();
+        for (int key : new int[]{50, 20, 80, 10, 30, 70, 90, 60}) {
+            b.put(key, "v" + key);
+        }
+        assertEquals(8, keys.size());
+        assertTrue(keys.remove(50));
+        assertFalse(keys.remove(50));
+        assertEquals(7, b.size());
+        StringBuilder visited = new StringBuilder();
+        b.forEach((key, value) -> visited.append(key).append('=').append(value).append(' '));
+        assertEquals("10=v10 20=v20 30=v30 60=v60 70=v70 80=v80 90=v90 ", visited.toString());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsFast() {
+        RedBlackBSTMap<String, Integer> b = new RedBlackBSTMap<>();
+        b.put("a", 1);
+        b.put("b", 2);
+        for (String key : b) {
+            b.remove(key);
+        }
+    }
+}
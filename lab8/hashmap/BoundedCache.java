@@ -0,0 +1,330 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ *  A cache that keeps the total weight of its entries within a maximum.
+ *  Entries are indexed by a MyHashMap. Once a put takes the total weight
+ *  over the maximum, the cache asks its EvictionPolicy for victims until
+ *  the total fits again. An entry's weight is 1 unless a Weigher says
+ *  otherwise, so by default the maximum weight is a maximum number of
+ *  entries.
+ *
+ *  Entries can also expire a fixed time after they were last written.
+ *  Since every entry lives for the same time, a list of the entries in
+ *  write order is also in expiry order, so expired entries are removed
+ *  from its front in O(1) time each.
+ *
+ *  Counts hits, misses, evictions and expirations. Not thread-safe; see
+ *  ConcurrentBoundedCache. Assumes null keys and values will never be
+ *  inserted.
+ *  @author Hao Chen
+ */
+public class BoundedCache<K, V> implements Map61B<K, V> {
+
+    /** Returns the weight of a mapping from KEY to VALUE, which must not be negative. */
+    public interface Weigher<K, V> {
+        long weigh(K key, V value);
+    }
+
+    /**
+     * A cached mapping, linked into both the eviction policy's lists and
+     * the cache's write-order list.
+     */
+    public static final class Entry<K, V> {
+        final K key;
+        V value;
+        long weight;
+        /** Time, as given by the ticker, at which this entry expires. */
+        long expiresAt;
+        /** Links for the eviction policy's list. */
+        Entry<K, V> prev;
+        Entry<K, V> next;
+        /** Which of the policy's lists the entry is in, if it has several. */
+        int queue;
+        /** Links for the write-order list. */
+        private Entry<K, V> writePrev;
+        private Entry<K, V> writeNext;
+
+        Entry(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+    /* Instance Variables */
+    private final MyHashMap<K, Entry<K, V>> index = new MyHashMap<>();
+    private final EvictionPolicy<K, V> policy;
+    private final Weigher<K, V> weigher;
+    private final long maximumWeight;
+    /** Lifetime of an entry in ticker units, or 0 if entries never expire. */
+    private final long expireAfterWrite;
+    private final LongSupplier ticker;
+    private long weight = 0;
+    /** Oldest and newest writes. */
+    private Entry<K, V> writeFirst;
+    private Entry<K, V> writeLast;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long expirationCount = 0;
+
+
+    /** Constructors */
+    public BoundedCache(long maximumWeight) {
+        this(maximumWeight, new LruPolicy<>());
+    }
+
+    public BoundedCache(long maximumWeight, EvictionPolicy<K, V> policy) {
+        this(maximumWeight, policy, (k, v) -> 1, 0, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumWeight largest total weight of the entries
+     * @param policy chooses the entries to evict; not shared with any other cache
+     * @param weigher gives the weight of each entry
+     * @param expireAfterWrite how long an entry lives after it is written,
+     *                         in ticker units, or 0 to keep entries until evicted
+     * @param ticker the current time, such as System::nanoTime
+     */
+    public BoundedCache(long maximumWeight, EvictionPolicy<K, V> policy, Weigher<K, V> weigher,
+                        long expireAfterWrite, LongSupplier ticker) {
+        if (maximumWeight < 0 || expireAfterWrite < 0) {
+            throw new IllegalArgumentException("maximumWeight and expireAfterWrite must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.policy = policy;
+        this.weigher = weigher;
+        this.expireAfterWrite = expireAfterWrite;
+        this.ticker = ticker;
+        policy.setMaximumWeight(maximumWeight);
+    }
+
+    private boolean isExpired(Entry<K, V> e, long now) {
+        return expireAfterWrite > 0 && e.expiresAt - now <= 0;
+    }
+
+    /** Removes the entries whose lifetime has ended, oldest first. */
+    private void expireEntries() {
+        if (expireAfterWrite == 0) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        while (writeFirst != null && isExpired(writeFirst, now)) {
+            removeEntry(writeFirst);
+            expirationCount += 1;
+        }
+    }
+
+    private void appendWrite(Entry<K, V> e) {
+        e.writePrev = writeLast;
+        e.writeNext = null;
+        if (writeLast == null) {
+            writeFirst = e;
+        } else {
+            writeLast.writeNext = e;
+        }
+        writeLast = e;
+    }
+
+    private void unlinkWrite(Entry<K, V> e) {
+        if (e.writePrev == null) {
+            writeFirst = e.writeNext;
+        } else {
+            e.writePrev.writeNext = e.writeNext;
+        }
+        if (e.writeNext == null) {
+            writeLast = e.writePrev;
+        } else {
+            e.writeNext.writePrev = e.writePrev;
+        }
+    }
+
+    private void removeEntry(Entry<K, V> e) {
+        index.remove(e.key);
+        policy.onRemove(e);
+        unlinkWrite(e);
+        weight -= e.weight;
+    }
+
+    private long weigh(K key, V value) {
+        long w = weigher.weigh(key, value);
+        if (w < 0) {
+            throw new IllegalArgumentException("negative weight " + w + " for key " + key);
+        }
+        return w;
+    }
+
+    @Override
+    public void clear() {
+        for (Entry<K, V> e = writeFirst; e != null; e = e.writeNext) {
+            policy.onRemove(e);
+        }
+        index.clear();
+        writeFirst = null;
+        writeLast = null;
+        weight = 0;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Entry<K, V> e = index.get(key);
+        if (e == null) {
+            return false;
+        }
+        return expireAfterWrite == 0 || !isExpired(e, ticker.getAsLong());
+    }
+
+    /** Returns the value KEY maps to, or null, and counts a hit or a miss. */
+    @Override
+    public V get(K key) {
+        expireEntries();
+        Entry<K, V> e = index.get(key);
+        if (e == null) {
+            missCount += 1;
+            policy.onMiss(key);
+            return null;
+        }
+        hitCount += 1;
+        policy.onAccess(e);
+        return e.value;
+    }
+
+    /** Returns the number of entries, after removing any that have expired. */
+    @Override
+    public int size() {
+        expireEntries();
+        return index.size();
+    }
+
+    /** Returns the total weight of the entries. */
+    public long weight() {
+        expireEntries();
+        return weight;
+    }
+
+    /**
+     * Maps KEY to VALUE, restarting its lifetime, and then evicts entries
+     * until the total weight is at most the maximum. A mapping heavier than
+     * the maximum is evicted straight away.
+     */
+    @Override
+    public void put(K key, V value) {
+        expireEntries();
+        long w = weigh(key, value);
+        Entry<K, V> e = index.get(key);
+        if (w > maximumWeight) {
+            // It would push out everything else and then itself.
+            if (e != null) {
+                removeEntry(e);
+            }
+            evictionCount += 1;
+            return;
+        }
+        if (e != null) {
+            long oldWeight = e.weight;
+            e.value = value;
+            e.weight = w;
+            weight += w - oldWeight;
+            unlinkWrite(e);
+            policy.onUpdate(e, oldWeight);
+        } else {
+            e = new Entry<>(key, value, w);
+            index.put(key, e);
+            weight += w;
+            policy.onAdd(e);
+        }
+        if (expireAfterWrite > 0) {
+            e.expiresAt = ticker.getAsLong() + expireAfterWrite;
+        }
+        appendWrite(e);
+        while (weight > maximumWeight) {
+            removeEntry(policy.victim());
+            evictionCount += 1;
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        index.ensureCapacity(expectedSize);
+    }
+
+    /** Returns a copy of the set of keys that have not expired. */
+    @Override
+    public Set<K> keySet() {
+        expireEntries();
+        return new HashSet<>(index.keySet());
+    }
+
+    @Override
+    public V remove(K key) {
+        expireEntries();
+        Entry<K, V> e = index.get(key);
+        if (e == null) {
+            return null;
+        }
+        removeEntry(e);
+        return e.value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        expireEntries();
+        Entry<K, V> e = index.get(key);
+        if (e == null || !value.equals(e.value)) {
+            return null;
+        }
+        removeEntry(e);
+        return e.value;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keySet().iterator();
+    }
+
+    /** Returns the number of reads that found a value. */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /** Returns the number of reads that found nothing, including expired entries. */
+    public long missCount() {
+        return missCount;
+    }
+
+    /** Returns the number of entries removed to make room for others. */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /** Returns the number of entries removed because their lifetime ended. */
+    public long expirationCount() {
+        return expirationCount;
+    }
+
+    /** Returns the fraction of reads that were hits, or 1 if there were none. */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,205 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ *  A thread-safe BoundedCache. Keys are spread by hash over a fixed number
+ *  of independent stripes, each a BoundedCache with its share of the
+ *  maximum weight and its own eviction policy, guarded by its own lock.
+ *  Every operation on a key locks only that key's stripe, so threads
+ *  working on different stripes never wait for each other. Even a read has
+ *  to lock, because it reorders the policy's lists.
+ *
+ *  Eviction is per stripe, so the cache as a whole may evict an entry while
+ *  another stripe holds a less valuable one. With many more entries than
+ *  stripes the difference is small.
+ *
+ *  Each stripe is limited to its own share of the maximum weight, about
+ *  maximumWeight / stripes, and an entry heavier than its stripe's share
+ *  is never kept, even when the other stripes are empty. Keys that happen
+ *  to hash to the same stripe also compete only with each other, so the
+ *  cache may start evicting before its total weight reaches the maximum.
+ *  @author Hao Chen
+ */
+public class ConcurrentBoundedCache<K, V> implements Map61B<K, V> {
+
+    private final BoundedCache<K, V>[] stripes;
+    private final int stripeMask;
+
+    private final static int DEFAULT_STRIPES = 16;
+
+
+    /** Constructors */
+    public ConcurrentBoundedCache(long maximumWeight) {
+        this(maximumWeight, DEFAULT_STRIPES, LruPolicy::new);
+    }
+
+    public ConcurrentBoundedCache(long maximumWeight, int stripes, Supplier<EvictionPolicy<K, V>> policies) {
+        this(maximumWeight, stripes, policies, (k, v) -> 1, 0, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty cache of stripes independent BoundedCaches, rounded
+     * up to a power of two, that share maximumWeight evenly. There are never
+     * more stripes than maximumWeight, so that every stripe can hold at
+     * least one entry of weight 1.
+     *
+     * @param maximumWeight largest total weight of the entries
+     * @param stripes number of independently locked stripes
+     * @param policies creates the eviction policy of each stripe
+     * @param weigher gives the weight of each entry
+     * @param expireAfterWrite how long an entry lives after it is written,
+     *                         in ticker units, or 0 to keep entries until evicted
+     * @param ticker the current time, such as System::nanoTime
+     */
+    public ConcurrentBoundedCache(long maximumWeight, int stripes, Supplier<EvictionPolicy<K, V>> policies,
+                                  BoundedCache.Weigher<K, V> weigher, long expireAfterWrite, LongSupplier ticker) {
+        int n = 1;
+        while (n < stripes && n < (1 << 16) && 2L * n <= maximumWeight) {
+            n <<= 1;
+        }
+        this.stripes = newStripes(n);
+        stripeMask = n - 1;
+        for (int i = 0; i < n; i++) {
+            // Spread the remainder so the stripe maxima add up to maximumWeight.
+            long share = maximumWeight / n + (i < maximumWeight % n ? 1 : 0);
+            this.stripes[i] = new BoundedCache<>(share, policies.get(), weigher, expireAfterWrite, ticker);
+        }
+    }
+
+    /** Returns an array of N empty slots for stripes. */
+    @SuppressWarnings("unchecked")
+    private static <K, V> BoundedCache<K, V>[] newStripes(int n) {
+        return (BoundedCache<K, V>[]) new BoundedCache<?, ?>[n];
+    }
+
+    private BoundedCache<K, V> stripeFor(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+
+    @Override
+    public void clear() {
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        BoundedCache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        BoundedCache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        BoundedCache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    /** Returns a copy of the keys, taken one stripe at a time. */
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                set.addAll(stripe.keySet());
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public V remove(K key) {
+        BoundedCache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        BoundedCache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key, value);
+        }
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keySet().iterator();
+    }
+
+    /** Returns the number of reads that found a value. */
+    public long hitCount() {
+        long total = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.hitCount();
+            }
+        }
+        return total;
+    }
+
+    /** Returns the number of reads that found nothing, including expired entries. */
+    public long missCount() {
+        long total = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.missCount();
+            }
+        }
+        return total;
+    }
+
+    /** Returns the number of entries removed to make room for others. */
+    public long evictionCount() {
+        long total = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.evictionCount();
+            }
+        }
+        return total;
+    }
+
+    /** Returns the number of entries removed because their lifetime ended. */
+    public long expirationCount() {
+        long total = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.expirationCount();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,398 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  A thread-safe hash table. Writers lock one of a fixed set of stripes,
+ *  each guarding the buckets whose indices agree in their low bits, so
+ *  writers to different stripes never wait for each other. Readers take no
+ *  locks: bucket heads are published through an AtomicReferenceArray and
+ *  nodes are immutable apart from their volatile value and next fields.
+ *
+ *  Resizing is cooperative. The thread that starts a resize and every
+ *  writer that runs into it claim chunks of old buckets and copy them into
+ *  the new table, leaving a forwarding node behind in each old bucket so
+ *  readers and writers know to look in the new table instead.
+ *
+ *  keySet() and iteration are weakly consistent: they reflect some of the
+ *  updates made while they run. Assumes null keys and values will never be
+ *  inserted, and does not resize down upon remove().
+ *  @author Hao Chen
+ */
+public class ConcurrentMyHashMap<K, V> implements Map61B<K, V> {
+
+    /** A key/value pair in a bucket's list. */
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** Left in an old bucket once its nodes have been copied to the new table. */
+    private static class ForwardingNode<K, V> extends Node<K, V> {
+        final Transfer<K, V> transfer;
+
+        ForwardingNode(Transfer<K, V> transfer) {
+            super(MOVED, null, null, null);
+            this.transfer = transfer;
+        }
+    }
+
+    /** The state of one resize, shared by every thread that helps with it. */
+    private static class Transfer<K, V> {
+        final AtomicReferenceArray<Node<K, V>> oldTable;
+        final AtomicReferenceArray<Node<K, V>> newTable;
+        /** Old buckets at or above this index have been claimed. */
+        final AtomicInteger nextIndex;
+        /** Number of old buckets already copied. */
+        final AtomicInteger moved = new AtomicInteger();
+
+        Transfer(AtomicReferenceArray<Node<K, V>> oldTable) {
+            this.oldTable = oldTable;
+            newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+            nextIndex = new AtomicInteger(oldTable.length());
+        }
+    }
+
+    /* Instance Variables */
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    /** The resize in progress, or null. */
+    private volatile Transfer<K, V> transfer;
+    /** Resize once size exceeds this many entries. */
+    private volatile int resizeThreshold;
+    private final double MAX_LOAD;
+    private final LongAdder size = new LongAdder();
+    /** Bucket i is guarded by STRIPES[i & (NUM_STRIPES - 1)]. */
+    private final Object[] stripes = new Object[NUM_STRIPES];
+    /** Held only while deciding whether to start a resize. */
+    private final Object resizeLock = new Object();
+
+    /** Hash of a ForwardingNode; real hashes are never negative. */
+    private final static int MOVED = -1;
+
+    /**
+     * Number of locks. The table never has fewer buckets than this, so the
+     * two new buckets an old bucket splits into share its stripe.
+     */
+    private final static int NUM_STRIPES = 64;
+
+    /** Old buckets claimed at a time by a thread helping with a resize. */
+    private final static int TRANSFER_STRIDE = 16;
+
+    private final static int INITIAL_SIZE = 64;
+
+    private final static double DEFAULT_MAX_LOAD = 0.75;
+
+    private final static int MAXIMUM_CAPACITY = 1 << 30;
+
+
+    /** Constructors */
+    public ConcurrentMyHashMap() {
+        this(INITIAL_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public ConcurrentMyHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Creates a table of initialSize buckets, rounded up to a power of two
+     * and to at least the number of lock stripes.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public ConcurrentMyHashMap(int initialSize, double maxLoad) {
+        MAX_LOAD = maxLoad;
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        int capacity = NUM_STRIPES;
+        while (capacity < initialSize && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        table = new AtomicReferenceArray<>(capacity);
+        resizeThreshold = thresholdFor(capacity);
+    }
+
+    private int thresholdFor(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.min(capacity * MAX_LOAD, Integer.MAX_VALUE);
+    }
+
+    /** Spreads the high bits of KEY's hash code into the low bits and clears the sign bit. */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    private Object stripeFor(int index) {
+        return stripes[index & (NUM_STRIPES - 1)];
+    }
+
+    @Override
+    public V get(K key) {
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            Node<K, V> node = tab.get(hash & (tab.length() - 1));
+            if (node instanceof ForwardingNode) {
+                tab = ((ForwardingNode<K, V>) node).transfer.newTable;
+                continue;
+            }
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node.value;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return (int) size.sum();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int index = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(index);
+            if (head instanceof ForwardingNode) {
+                Transfer<K, V> forwardedTo = ((ForwardingNode<K, V>) head).transfer;
+                helpTransfer(forwardedTo);
+                tab = forwardedTo.newTable;
+                continue;
+            }
+            synchronized (stripeFor(index)) {
+                // A resize may have moved the bucket before we got the lock.
+                head = tab.get(index);
+                if (head instanceof ForwardingNode) {
+                    continue;
+                }
+                for (Node<K, V> node = head; node != null; node = node.next) {
+                    if (node.hash == hash && node.key.equals(key)) {
+                        node.value = value;
+                        return;
+                    }
+                }
+                tab.set(index, new Node<>(hash, key, value, head));
+            }
+            size.increment();
+            if (size.sum() > resizeThreshold) {
+                startResize(tab);
+            }
+            return;
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        return removeNode(key, null);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        return removeNode(key, value);
+    }
+
+    /**
+     * Removes KEY if it is present and, unless EXPECTED is null, mapped to
+     * a value equal to EXPECTED. Returns the removed value or null.
+     */
+    private V removeNode(K key, V expected) {
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int index = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(index);
+            if (head instanceof ForwardingNode) {
+                Transfer<K, V> forwardedTo = ((ForwardingNode<K, V>) head).transfer;
+                helpTransfer(forwardedTo);
+                tab = forwardedTo.newTable;
+                continue;
+            }
+            if (head == null) {
+                return null;
+            }
+            synchronized (stripeFor(index)) {
+                head = tab.get(index);
+                if (head instanceof ForwardingNode) {
+                    continue;
+                }
+                Node<K, V> prev = null;
+                for (Node<K, V> node = head; node != null; prev = node, node = node.next) {
+                    if (node.hash != hash || !node.key.equals(key)) {
+                        continue;
+                    }
+                    V value = node.value;
+                    if (expected != null && !expected.equals(value)) {
+                        return null;
+                    }
+                    // Readers already on NODE can still follow its next link.
+                    if (prev == null) {
+                        tab.set(index, node.next);
+                    } else {
+                        prev.next = node.next;
+                    }
+                    size.decrement();
+                    return value;
+                }
+                return null;
+            }
+        }
+    }
+
+    /** Starts doubling TAB unless it has already been replaced or is being resized, then helps. */
+    private void startResize(AtomicReferenceArray<Node<K, V>> tab) {
+        Transfer<K, V> current;
+        synchronized (resizeLock) {
+            current = transfer;
+            if (current == null) {
+                if (table != tab || tab.length() >= MAXIMUM_CAPACITY || size.sum() <= resizeThreshold) {
+                    return;
+                }
+                current = new Transfer<>(tab);
+                transfer = current;
+            }
+        }
+        helpTransfer(current);
+    }
+
+    /**
+     * Claims and copies chunks of old buckets of T until none are left. The
+     * thread that copies the last bucket installs the new table.
+     */
+    private void helpTransfer(Transfer<K, V> t) {
+        int oldLength = t.oldTable.length();
+        while (true) {
+            int hi = t.nextIndex.get();
+            if (hi <= 0) {
+                return;
+            }
+            int lo = Math.max(0, hi - TRANSFER_STRIDE);
+            if (!t.nextIndex.compareAndSet(hi, lo)) {
+                continue;
+            }
+            for (int i = lo; i < hi; i++) {
+                moveBucket(t, i);
+            }
+            if (t.moved.addAndGet(hi - lo) == oldLength) {
+                // Raise the threshold first: a writer that sees the new table
+                // with the old threshold would start another resize at once.
+                resizeThreshold = thresholdFor(t.newTable.length());
+                table = t.newTable;
+                transfer = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copies old bucket I of T into new buckets I and I + oldLength, which
+     * share its stripe, and replaces it with a forwarding node. The nodes are
+     * copied rather than relinked so readers still in the old list are not
+     * sent into the wrong bucket.
+     */
+    private void moveBucket(Transfer<K, V> t, int i) {
+        int oldLength = t.oldTable.length();
+        synchronized (stripeFor(i)) {
+            Node<K, V> low = null;
+            Node<K, V> high = null;
+            for (Node<K, V> node = t.oldTable.get(i); node != null; node = node.next) {
+                if ((node.hash & oldLength) == 0) {
+                    low = new Node<>(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node<>(node.hash, node.key, node.value, high);
+                }
+            }
+            t.newTable.set(i, low);
+            t.newTable.set(i + oldLength, high);
+            t.oldTable.set(i, new ForwardingNode<>(t));
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (K key : keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            addKeys(tab, i, set);
+        }
+        return set;
+    }
+
+    /** Adds the keys in bucket I of TAB, following forwarding nodes, to SET. */
+    private void addKeys(AtomicReferenceArray<Node<K, V>> tab, int i, Set<K> set) {
+        Node<K, V> node = tab.get(i);
+        if (node instanceof ForwardingNode) {
+            AtomicReferenceArray<Node<K, V>> newTable = ((ForwardingNode<K, V>) node).transfer.newTable;
+            addKeys(newTable, i, set);
+            addKeys(newTable, i + tab.length(), set);
+            return;
+        }
+        for (; node != null; node = node.next) {
+            set.add(node.key);
+        }
+    }
+
+    /** Iterates over a snapshot of the keys; remove() removes the last key
+     *  returned from this map, not just from the snapshot. */
+    @Override
+    public Iterator<K> iterator() {
+        Iterator<K> keys = keySet().iterator();
+        return new Iterator<K>() {
+            private K lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public K next() {
+                lastReturned = keys.next();
+                return lastReturned;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                ConcurrentMyHashMap.this.remove(lastReturned);
+                lastReturned = null;
+            }
+        };
+    }
+}
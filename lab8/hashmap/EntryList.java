@@ -0,0 +1,66 @@
+package hashmap;
+
+/**
+ *  A doubly-linked list of cache entries threaded through their own prev
+ *  and next fields, so that moving or removing an entry takes O(1) time
+ *  and allocates nothing. The first entry is the most recently used.
+ *  Tracks the total weight of its entries.
+ *  @author Hao Chen
+ */
+class EntryList<K, V> {
+
+    private BoundedCache.Entry<K, V> first;
+    private BoundedCache.Entry<K, V> last;
+    private int size = 0;
+    /** Sum of the weights of the entries in this list. */
+    long weight = 0;
+
+    int size() {
+        return size;
+    }
+
+    BoundedCache.Entry<K, V> first() {
+        return first;
+    }
+
+    BoundedCache.Entry<K, V> last() {
+        return last;
+    }
+
+    void addFirst(BoundedCache.Entry<K, V> e) {
+        e.prev = null;
+        e.next = first;
+        if (first == null) {
+            last = e;
+        } else {
+            first.prev = e;
+        }
+        first = e;
+        size += 1;
+        weight += e.weight;
+    }
+
+    void remove(BoundedCache.Entry<K, V> e) {
+        if (e.prev == null) {
+            first = e.next;
+        } else {
+            e.prev.next = e.next;
+        }
+        if (e.next == null) {
+            last = e.prev;
+        } else {
+            e.next.prev = e.prev;
+        }
+        e.prev = null;
+        e.next = null;
+        size -= 1;
+        weight -= e.weight;
+    }
+
+    void moveToFront(BoundedCache.Entry<K, V> e) {
+        if (e != first) {
+            remove(e);
+            addFirst(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package hashmap;
+
+/**
+ *  Decides which entry a BoundedCache evicts when it is over its maximum
+ *  weight. The cache reports every entry it adds, reads, updates and
+ *  removes, and the policy keeps whatever order it needs by linking the
+ *  entries into its own lists, so each call must take O(1) time.
+ *
+ *  A policy instance belongs to one cache and must not be shared.
+ *  @author Hao Chen
+ */
+public interface EvictionPolicy<K, V> {
+
+    /** Called once, before any other method, with the cache's MAXIMUMWEIGHT. */
+    void setMaximumWeight(long maximumWeight);
+
+    /** Called after ENTRY has been added to the cache. */
+    void onAdd(BoundedCache.Entry<K, V> entry);
+
+    /** Called when a read of KEY finds nothing. */
+    default void onMiss(K key) {
+    }
+
+    /** Called when ENTRY is read. */
+    void onAccess(BoundedCache.Entry<K, V> entry);
+
+    /** Called when ENTRY is given a new value, which changed its weight from OLDWEIGHT. */
+    void onUpdate(BoundedCache.Entry<K, V> entry, long oldWeight);
+
+    /** Called when ENTRY leaves the cache for any reason, including eviction. */
+    void onRemove(BoundedCache.Entry<K, V> entry);
+
+    /**
+     * Returns the entry to evict next. Only called while the cache holds
+     * at least one entry.
+     */
+    BoundedCache.Entry<K, V> victim();
+}
@@ -0,0 +1,100 @@
+package hashmap;
+
+/**
+ *  A count-min sketch of how often each key has been seen recently. It
+ *  keeps four rows of 4-bit counters, sixteen to a long, and a key's
+ *  estimate is the smallest of the four counters it hashes to, so hash
+ *  collisions can only inflate an estimate. Once the number of increments
+ *  reaches ten times the table's capacity every counter is halved, which
+ *  lets the sketch forget keys that were popular long ago.
+ *  @author Hao Chen
+ */
+class FrequencySketch {
+
+    /** Multipliers that derive the four row indices from one hash. */
+    private static final long[] SEEDS = {
+        0x97CB3127A1F2D5C3L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MAX_COUNT = 15;
+
+    /** Largest table whose counter indices still fit in an int. */
+    private static final int MAXIMUM_LENGTH = 1 << 26;
+
+    private long[] table;
+    private int tableMask;
+    private int additions = 0;
+    private int sampleSize;
+
+    FrequencySketch() {
+        createTable(16);
+    }
+
+    private void createTable(int length) {
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+        additions = 0;
+    }
+
+    /**
+     * Grows the table to sixteen counters for each of MAXIMUMSIZE keys,
+     * forgetting all counts. Does nothing if it is already big enough.
+     */
+    void ensureCapacity(int maximumSize) {
+        int length = table.length;
+        while (length < maximumSize && length < MAXIMUM_LENGTH) {
+            length <<= 1;
+        }
+        if (length > table.length) {
+            createTable(length);
+        }
+    }
+
+    /** Returns the index of HASH's counter in row I, as a long index times 16 plus a nibble. */
+    private int counterIndex(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & ((tableMask << 4) | 15);
+    }
+
+    /** Returns the estimated number of times HASH has been seen, at most 15. */
+    int frequency(int hash) {
+        int min = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = counterIndex(hash, i);
+            int count = (int) (table[index >>> 4] >>> ((index & 15) << 2)) & MAX_COUNT;
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+
+    /** Records one occurrence of HASH. */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = counterIndex(hash, i);
+            int shift = (index & 15) << 2;
+            if (((table[index >>> 4] >>> shift) & MAX_COUNT) != MAX_COUNT) {
+                table[index >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added) {
+            additions += 1;
+            if (additions == sampleSize) {
+                reset();
+            }
+        }
+    }
+
+    /** Halves every counter. */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,194 @@
+package hashmap;
+
+import java.util.Arrays;
+
+/**
+ *  A hash table from int keys to int values that never boxes. Keys and
+ *  values live in two parallel int arrays probed linearly, and remove()
+ *  uses backward-shift deletion.
+ *
+ *  A slot is empty when its key is 0. The key 0 itself is kept outside the
+ *  arrays in zeroValue, so every int is a valid key.
+ *
+ *  Does not resize down upon remove().
+ *  @author Hao Chen
+ */
+public class IntIntHashMap {
+
+    /* Instance Variables */
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeThreshold;
+    private final double MAX_LOAD;
+
+    /** Entries in the arrays, not counting the key 0. */
+    private int size = 0;
+    private boolean hasZeroKey = false;
+    private int zeroValue;
+
+    private final static int INITIAL_SIZE = 16;
+
+    private final static double DEFAULT_MAX_LOAD = 0.75;
+
+
+    /** Constructors */
+    public IntIntHashMap() {
+        this(INITIAL_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public IntIntHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Creates a table with room for initialSize slots, rounded up to a
+     * power of two. maxLoad must be less than 1.
+     *
+     * @param initialSize initial number of slots
+     * @param maxLoad maximum load factor
+     */
+    public IntIntHashMap(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be between 0 and 1: " + maxLoad);
+        }
+        MAX_LOAD = maxLoad;
+        int capacity = 2;
+        while (capacity < initialSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        createTable(capacity);
+    }
+
+    private void createTable(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) Math.min(capacity * MAX_LOAD, capacity - 1);
+    }
+
+    /** Returns the home slot of KEY. Multiplying by the golden ratio spreads consecutive keys. */
+    private int home(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /** Returns the slot holding nonzero KEY, or the empty slot where it would go. */
+    private int findSlot(int key) {
+        int slot = home(key);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Removes all of the mappings from this map. */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    /** Returns true if this map contains a mapping for KEY. */
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        return keys[findSlot(key)] != 0;
+    }
+
+    /** Returns the value KEY maps to, or DEFAULTVALUE if it is absent. */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = findSlot(key);
+        return keys[slot] != 0 ? values[slot] : defaultValue;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    /** Maps KEY to VALUE, replacing any earlier value. */
+    public void put(int key, int value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] != 0) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+        if (size > resizeThreshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        createTable(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for KEY if present. Returns true if there was one.
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            return had;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == 0) {
+            return false;
+        }
+        // Pull back each later entry in the run that may move into the gap:
+        // one whose home slot is not cyclically between the gap and itself.
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int nextHome = home(keys[next]);
+            if (((next - nextHome) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        size -= 1;
+        return true;
+    }
+
+    /** Functional interface for forEach, taking a primitive key and value. */
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+
+    /** Calls ACTION on every mapping, in no particular order. */
+    public void forEach(IntIntConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package hashmap;
+
+import java.util.Arrays;
+
+/**
+ *  A hash table from long keys to object values that never boxes its keys.
+ *  Keys and values live in a long array and a parallel Object array probed
+ *  linearly, and remove() uses backward-shift deletion.
+ *
+ *  A slot is empty when its key is 0. The key 0 itself is kept outside the
+ *  arrays in zeroValue, so every long is a valid key.
+ *
+ *  Assumes null values will never be inserted, and does not resize down upon remove().
+ *  @author Hao Chen
+ */
+public class LongObjectHashMap<V> {
+
+    /* Instance Variables */
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeThreshold;
+    private final double MAX_LOAD;
+
+    /** Entries in the arrays, not counting the key 0. */
+    private int size = 0;
+    private boolean hasZeroKey = false;
+    private V zeroValue;
+
+    private final static int INITIAL_SIZE = 16;
+
+    private final static double DEFAULT_MAX_LOAD = 0.75;
+
+
+    /** Constructors */
+    public LongObjectHashMap() {
+        this(INITIAL_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public LongObjectHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Creates a table with room for initialSize slots, rounded up to a
+     * power of two. maxLoad must be less than 1.
+     *
+     * @param initialSize initial number of slots
+     * @param maxLoad maximum load factor
+     */
+    public LongObjectHashMap(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be between 0 and 1: " + maxLoad);
+        }
+        MAX_LOAD = maxLoad;
+        int capacity = 2;
+        while (capacity < initialSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        createTable(capacity);
+    }
+
+    private void createTable(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) Math.min(capacity * MAX_LOAD, capacity - 1);
+    }
+
+    /** Returns the home slot of KEY. Multiplying by the golden ratio spreads consecutive keys. */
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Returns the slot holding nonzero KEY, or the empty slot where it would go. */
+    private int findSlot(long key) {
+        int slot = home(key);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Removes all of the mappings from this map. */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = null;
+    }
+
+    /** Returns true if this map contains a mapping for KEY. */
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        return keys[findSlot(key)] != 0;
+    }
+
+    /** Returns the value KEY maps to, or null if it is absent. */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        return (V) values[findSlot(key)];
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    /** Maps KEY to VALUE, replacing any earlier value. */
+    public void put(long key, V value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] != 0) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+        if (size > resizeThreshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        createTable(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for KEY if present. Returns the removed value, or
+     * null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V value = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            return value;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        // Pull back each later entry in the run that may move into the gap:
+        // one whose home slot is not cyclically between the gap and itself.
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int nextHome = home(keys[next]);
+            if (((next - nextHome) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size -= 1;
+        return value;
+    }
+
+    /** Functional interface for forEach, taking a primitive key. */
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    /** Calls ACTION on every mapping, in no particular order. */
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjectConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+}
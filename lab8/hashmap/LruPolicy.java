@@ -0,0 +1,41 @@
+package hashmap;
+
+/**
+ *  Least-recently-used eviction: every read or write moves an entry to the
+ *  front of one list, and the victim is the entry at the back.
+ *  @author Hao Chen
+ */
+public class LruPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    private final EntryList<K, V> list = new EntryList<>();
+
+    @Override
+    public void setMaximumWeight(long maximumWeight) {
+    }
+
+    @Override
+    public void onAdd(BoundedCache.Entry<K, V> entry) {
+        list.addFirst(entry);
+    }
+
+    @Override
+    public void onAccess(BoundedCache.Entry<K, V> entry) {
+        list.moveToFront(entry);
+    }
+
+    @Override
+    public void onUpdate(BoundedCache.Entry<K, V> entry, long oldWeight) {
+        list.weight += entry.weight - oldWeight;
+        list.moveToFront(entry);
+    }
+
+    @Override
+    public void onRemove(BoundedCache.Entry<K, V> entry) {
+        list.remove(entry);
+    }
+
+    @Override
+    public BoundedCache.Entry<K, V> victim() {
+        return list.last();
+    }
+}
@@ -1,6 +1,9 @@
 package hashmap;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 /**
  * Your implementation hashmap.MyHashMap should implement this interface. To do so,
  * append "implements hashmap.Map61B<K, V>" to the end of your "public class..."
@@ -45,5 +48,58 @@ public interface Map61B<K, V> extends Iterable<K> {
      * throw an UnsupportedOperationException.
      */
     V remove(K key, V value);
-}
 
+    /**
+     * Performs the given action on each key and its value. Implementations
+     * can override this to visit entries without a lookup per key.
+     */
+    default void forEach(BiConsumer<? super K, ? super V> action) {
+        for (K key : this) {
+            action.accept(key, get(key));
+        }
+    }
+
+    /**
+     * Copies every mapping in M into this map. Implementations can override
+     * this to size their storage once for the whole batch.
+     */
+    default void putAll(Map<? extends K, ? extends V> m) {
+        ensureCapacity(size() + m.size());
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns a map from each of KEYS present in this map to its value, in
+     * the order KEYS lists them.
+     */
+    default Map<K, V> getAll(Iterable<? extends K> keys) {
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (containsKey(key)) {
+                result.put(key, get(key));
+            }
+        }
+        return result;
+    }
+
+    /** Removes the mappings for all of KEYS and returns how many there were. */
+    default int removeAll(Iterable<? extends K> keys) {
+        int removed = 0;
+        for (K key : keys) {
+            if (containsKey(key)) {
+                remove(key);
+                removed += 1;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Prepares this map to hold EXPECTEDSIZE mappings without growing
+     * again. Does nothing by default.
+     */
+    default void ensureCapacity(int expectedSize) {
+    }
+}
@@ -0,0 +1,468 @@
+package hashmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ *  A hash table from String keys to long values that lives in memory-mapped
+ *  files rather than on the Java heap.
+ *
+ *  The table file holds a small header followed by fixed-size slots of
+ *  (hash, key length, key offset, value), probed linearly with
+ *  backward-shift deletion. Key bytes are appended, UTF-8 encoded, to a
+ *  second file next to it. Both files are used in place, so opening an
+ *  existing map only maps them; nothing is deserialized. String.hashCode()
+ *  is fixed by the language specification, so stored hashes stay valid
+ *  across runs.
+ *
+ *  The table grows by writing a larger table file and renaming it over the
+ *  old one; the keys file grows by extending and remapping it. The bytes
+ *  of removed keys are not reclaimed. Each file is a single mapping, so the
+ *  table is limited to 2^26 slots and the keys to 2 GB.
+ *
+ *  Assumes null keys and values will never be inserted, and does not
+ *  resize down upon remove(). Call close() to flush changes to disk.
+ *  @author Hao Chen
+ */
+public class MappedStringLongMap implements Map61B<String, Long>, Closeable {
+
+    /* Header layout. */
+    private final static int MAGIC = 0x4D534C4D;
+    private final static int MAGIC_OFFSET = 0;
+    private final static int CAPACITY_OFFSET = 4;
+    private final static int SIZE_OFFSET = 8;
+    private final static int KEYS_END_OFFSET = 16;
+    private final static int HEADER_SIZE = 64;
+
+    /* Slot layout. A hash of EMPTY marks a free slot. */
+    private final static int SLOT_HASH = 0;
+    private final static int SLOT_KEY_LENGTH = 4;
+    private final static int SLOT_KEY_OFFSET = 8;
+    private final static int SLOT_VALUE = 16;
+    private final static int SLOT_SIZE = 24;
+    private final static int EMPTY = 0;
+
+    private final static int INITIAL_SIZE = 1024;
+
+    private final static double MAX_LOAD = 0.75;
+
+    private final static int MAXIMUM_CAPACITY = 1 << 26;
+
+    /* Instance Variables */
+    private final File tableFile;
+    private final File keysFile;
+    private MappedByteBuffer table;
+    private MappedByteBuffer keys;
+    private int capacity;
+    private int mask;
+    private int size;
+    /** Offset in the keys file where the next key will be written. */
+    private long keysEnd;
+    /** Incremented on every structural change, so iterators can fail fast. */
+    private int modCount = 0;
+
+
+    /** Constructors */
+    public MappedStringLongMap(File file) throws IOException {
+        this(file, INITIAL_SIZE);
+    }
+
+    /**
+     * Opens the map stored in FILE and FILE.keys, or creates an empty one
+     * with room for initialSize slots, rounded up to a power of two, if
+     * FILE does not exist.
+     *
+     * @param file the table file
+     * @param initialSize initial number of slots for a new map
+     */
+    public MappedStringLongMap(File file, int initialSize) throws IOException {
+        tableFile = file;
+        keysFile = new File(file.getPath() + ".keys");
+        if (file.exists()) {
+            table = map(tableFile, file.length());
+            if (table.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a MappedStringLongMap file: " + file);
+            }
+            capacity = table.getInt(CAPACITY_OFFSET);
+            size = table.getInt(SIZE_OFFSET);
+            keysEnd = table.getLong(KEYS_END_OFFSET);
+            keys = map(keysFile, Math.max(keysEnd, keysFile.length()));
+        } else {
+            capacity = 2;
+            while (capacity < initialSize && capacity < MAXIMUM_CAPACITY) {
+                capacity <<= 1;
+            }
+            table = createTable(tableFile, capacity);
+            keysEnd = 0;
+            keys = map(keysFile, Math.max(1024, keysFile.length()));
+            writeHeader();
+        }
+        mask = capacity - 1;
+    }
+
+    /** Maps the first LENGTH bytes of FILE read-write, extending it if needed. */
+    private static MappedByteBuffer map(File file, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("File too large to map: " + file);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    /** Creates FILE holding an empty table of CAPACITY slots, stamped with a header. */
+    private static MappedByteBuffer createTable(File file, int capacity) throws IOException {
+        Files.deleteIfExists(file.toPath());
+        MappedByteBuffer buffer = map(file, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        return buffer;
+    }
+
+    private void writeHeader() {
+        table.putInt(SIZE_OFFSET, size);
+        table.putLong(KEYS_END_OFFSET, keysEnd);
+    }
+
+    /** Spreads the high bits of KEY's hash code into the low bits; never returns EMPTY. */
+    private static int hash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return h == EMPTY ? 1 : h;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /** Returns true if the key in the slot at BASE is the UTF-8 string BYTES. */
+    private boolean keyEquals(int base, byte[] bytes) {
+        if (table.getInt(base + SLOT_KEY_LENGTH) != bytes.length) {
+            return false;
+        }
+        int offset = (int) table.getLong(base + SLOT_KEY_OFFSET);
+        for (int i = 0; i < bytes.length; i++) {
+            if (keys.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(int base) {
+        byte[] bytes = new byte[table.getInt(base + SLOT_KEY_LENGTH)];
+        ByteBuffer view = keys.duplicate();
+        view.position((int) table.getLong(base + SLOT_KEY_OFFSET));
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Returns the slot holding the key with hash H and UTF-8 form BYTES, or the empty slot where it would go. */
+    private int findSlot(int h, byte[] bytes) {
+        int slot = h & mask;
+        while (true) {
+            int base = slotOffset(slot);
+            int slotHash = table.getInt(base + SLOT_HASH);
+            if (slotHash == EMPTY || (slotHash == h && keyEquals(base, bytes))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean isOccupied(int slot) {
+        return table.getInt(slotOffset(slot) + SLOT_HASH) != EMPTY;
+    }
+
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < capacity; slot++) {
+            table.putInt(slotOffset(slot) + SLOT_HASH, EMPTY);
+        }
+        size = 0;
+        keysEnd = 0;
+        writeHeader();
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return isOccupied(findSlot(hash(key), key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public Long get(String key) {
+        int slot = findSlot(hash(key), key.getBytes(StandardCharsets.UTF_8));
+        if (!isOccupied(slot)) {
+            return null;
+        }
+        return table.getLong(slotOffset(slot) + SLOT_VALUE);
+    }
+
+    /** Returns the value KEY maps to, or DEFAULTVALUE if it is absent, without boxing. */
+    public long getOrDefault(String key, long defaultValue) {
+        int slot = findSlot(hash(key), key.getBytes(StandardCharsets.UTF_8));
+        if (!isOccupied(slot)) {
+            return defaultValue;
+        }
+        return table.getLong(slotOffset(slot) + SLOT_VALUE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(String key, Long value) {
+        put(key, value.longValue());
+    }
+
+    /** Maps KEY to VALUE without boxing. */
+    public void put(String key, long value) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int h = hash(key);
+        int slot = findSlot(h, bytes);
+        int base = slotOffset(slot);
+        if (isOccupied(slot)) {
+            table.putLong(base + SLOT_VALUE, value);
+            return;
+        }
+        if (size + 1 > capacity * MAX_LOAD) {
+            growTable(capacity * 2);
+            slot = findSlot(h, bytes);
+            base = slotOffset(slot);
+        }
+        long keyOffset = appendKey(bytes);
+        table.putInt(base + SLOT_KEY_LENGTH, bytes.length);
+        table.putLong(base + SLOT_KEY_OFFSET, keyOffset);
+        table.putLong(base + SLOT_VALUE, value);
+        table.putInt(base + SLOT_HASH, h);
+        size += 1;
+        writeHeader();
+        modCount += 1;
+    }
+
+    /** Writes BYTES at the end of the keys file, growing it if needed, and returns their offset. */
+    private long appendKey(byte[] bytes) {
+        long needed = keysEnd + bytes.length;
+        if (needed > keys.capacity()) {
+            long newLength = keys.capacity();
+            while (newLength < needed) {
+                newLength *= 2;
+            }
+            keys.force();
+            try {
+                keys = map(keysFile, Math.min(newLength, Integer.MAX_VALUE));
+            } catch (IOException excp) {
+                throw new IllegalStateException(excp.getMessage());
+            }
+            if (needed > keys.capacity()) {
+                throw new IllegalStateException("Keys file is full: " + keysFile);
+            }
+        }
+        long offset = keysEnd;
+        ByteBuffer view = keys.duplicate();
+        view.position((int) offset);
+        view.put(bytes);
+        keysEnd = needed;
+        return offset;
+    }
+
+    /** Grows the table so EXPECTEDSIZE keys fit without growing again. */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        growTable((int) Math.min(Math.ceil((expectedSize + 1) / MAX_LOAD), MAXIMUM_CAPACITY));
+    }
+
+    /**
+     * Grows the table to at least NEWCAPACITY slots, rounded up to a power
+     * of two. The new table is built in a separate file from the stored
+     * hashes alone, then renamed over the old one.
+     */
+    private void growTable(int newCapacity) {
+        int target = capacity;
+        while (target < newCapacity && target < MAXIMUM_CAPACITY) {
+            target <<= 1;
+        }
+        if (target == capacity) {
+            if (size + 1 > capacity * MAX_LOAD && capacity >= MAXIMUM_CAPACITY) {
+                throw new IllegalStateException("Table is full: " + tableFile);
+            }
+            return;
+        }
+        File tmp = new File(tableFile.getPath() + ".tmp");
+        MappedByteBuffer newTable;
+        try {
+            newTable = createTable(tmp, target);
+        } catch (IOException excp) {
+            throw new IllegalStateException(excp.getMessage());
+        }
+        int newMask = target - 1;
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slotOffset(slot);
+            int h = table.getInt(base + SLOT_HASH);
+            if (h == EMPTY) {
+                continue;
+            }
+            int newSlot = h & newMask;
+            while (newTable.getInt(slotOffset(newSlot) + SLOT_HASH) != EMPTY) {
+                newSlot = (newSlot + 1) & newMask;
+            }
+            int newBase = slotOffset(newSlot);
+            newTable.putInt(newBase + SLOT_KEY_LENGTH, table.getInt(base + SLOT_KEY_LENGTH));
+            newTable.putLong(newBase + SLOT_KEY_OFFSET, table.getLong(base + SLOT_KEY_OFFSET));
+            newTable.putLong(newBase + SLOT_VALUE, table.getLong(base + SLOT_VALUE));
+            newTable.putInt(newBase + SLOT_HASH, h);
+        }
+        table = newTable;
+        capacity = target;
+        mask = newMask;
+        writeHeader();
+        keys.force();
+        table.force();
+        try {
+            Files.move(tmp.toPath(), tableFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException excp) {
+            throw new IllegalStateException(excp.getMessage());
+        }
+        modCount += 1;
+    }
+
+    @Override
+    public Long remove(String key) {
+        int slot = findSlot(hash(key), key.getBytes(StandardCharsets.UTF_8));
+        if (!isOccupied(slot)) {
+            return null;
+        }
+        long value = table.getLong(slotOffset(slot) + SLOT_VALUE);
+        // Pull back each later entry in the run whose home slot is not
+        // cyclically between the gap and itself.
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (isOccupied(next)) {
+            int nextBase = slotOffset(next);
+            int home = table.getInt(nextBase + SLOT_HASH) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                int gapBase = slotOffset(gap);
+                table.putInt(gapBase + SLOT_KEY_LENGTH, table.getInt(nextBase + SLOT_KEY_LENGTH));
+                table.putLong(gapBase + SLOT_KEY_OFFSET, table.getLong(nextBase + SLOT_KEY_OFFSET));
+                table.putLong(gapBase + SLOT_VALUE, table.getLong(nextBase + SLOT_VALUE));
+                table.putInt(gapBase + SLOT_HASH, table.getInt(nextBase + SLOT_HASH));
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table.putInt(slotOffset(gap) + SLOT_HASH, EMPTY);
+        size -= 1;
+        writeHeader();
+        modCount += 1;
+        return value;
+    }
+
+    @Override
+    public Long remove(String key, Long value) {
+        Long v = get(key);
+        if (value.equals(v)) {
+            return remove(key);
+        }
+        return null;
+    }
+
+    /** Returns a live view of the keys, decoded as they are iterated. */
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return MappedStringLongMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && containsKey((String) o);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Long> action) {
+        int expectedModCount = modCount;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (isOccupied(slot)) {
+                int base = slotOffset(slot);
+                action.accept(readKey(base), table.getLong(base + SLOT_VALUE));
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int slot = nextOccupied(0);
+            private final int expectedModCount = modCount;
+
+            private int nextOccupied(int from) {
+                while (from < capacity && !isOccupied(from)) {
+                    from += 1;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < capacity;
+            }
+
+            @Override
+            public String next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String key = readKey(slotOffset(slot));
+                slot = nextOccupied(slot + 1);
+                return key;
+            }
+        };
+    }
+
+    /** Writes every change to disk. */
+    public void flush() {
+        writeHeader();
+        keys.force();
+        table.force();
+    }
+
+    /** Flushes the map. The mappings are released when this object is collected. */
+    @Override
+    public void close() {
+        flush();
+    }
+}
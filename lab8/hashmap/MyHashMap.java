@@ -1,6 +1,7 @@
 package hashmap;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  *  A hash table-backed Map implementation. Provides amortized constant time
@@ -14,14 +15,42 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     /**
      * Protected helper class to store key/value pairs
      * The protected qualifier allows subclass access
+     *
+     * Nodes are handed out directly by entrySet(). They keep identity
+     * equality, because bucket types such as HashSet hash the nodes
+     * themselves and a value-based hash code would change on setValue().
      */
-    protected class Node {
+    protected class Node implements Map.Entry<K, V> {
         K key;
         V value;
+        /** Spread hash code of key, cached so resizing never calls hashCode(). */
+        final int hash;
 
         Node(K k, V v) {
+            this(k, v, hash(k));
+        }
+
+        Node(K k, V v, int h) {
             key = k;
             value = v;
+            hash = h;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V v) {
+            V old = value;
+            value = v;
+            return old;
         }
     }
 
@@ -32,10 +61,35 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
 
     private int size = 0;
 
+    /** Incremented on every structural change, so iterators can fail fast. */
+    private int modCount = 0;
+
+    /** Resize once size exceeds this many entries. */
+    private int resizeThreshold;
+
+    /** True if resizing moves a few buckets per operation instead of all at once. */
+    private final boolean incrementalResize;
+
+    /**
+     * While an incremental resize is in progress, the table being drained
+     * into buckets; null otherwise. Old buckets below rehashIndex have
+     * already been moved.
+     */
+    private Collection<Node>[] oldBuckets;
+    private int rehashIndex;
+
+    /** Non-empty old buckets moved by each operation during an incremental resize. */
+    private final static int REHASH_STEP = 4;
+
+    /** Empty old buckets skipped per non-empty one before an operation gives up its turn. */
+    private final static int REHASH_EMPTY_VISITS = 10;
+
     private final static int INITIAL_SIZE = 16;
 
     private final static double DEFAULT_MAX_LOAD = 0.75;
 
+    private final static int MAXIMUM_CAPACITY = 1 << 30;
+
 
     /** Constructors */
     public MyHashMap() {
@@ -47,22 +101,66 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     }
 
     /**
-     * MyHashMap constructor that creates a backing array of initialSize.
+     * MyHashMap constructor that creates a backing array of initialSize,
+     * rounded up to a power of two.
      * The load factor (# items / # buckets) should always be <= loadFactor
      *
      * @param initialSize initial size of backing array
      * @param maxLoad maximum load factor
      */
     public MyHashMap(int initialSize, double maxLoad) {
-        buckets = createTable(initialSize);
+        this(initialSize, maxLoad, false);
+    }
+
+    /**
+     * MyHashMap constructor that can spread each resize over later
+     * operations. With incrementalResize, the old and new tables coexist
+     * after the table grows, and every put, get and remove moves a few old
+     * buckets into the new table, so no single call rehashes everything.
+     * Iterators tolerate those moves, so reading the map or replacing values
+     * while iterating over it is safe in either mode.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     * @param incrementalResize whether to resize incrementally
+     */
+    public MyHashMap(int initialSize, double maxLoad, boolean incrementalResize) {
         MAX_LOAD = maxLoad;
+        this.incrementalResize = incrementalResize;
+        buckets = createTable(tableSizeFor(initialSize));
+        resizeThreshold = thresholdFor(buckets.length);
+    }
+
+    /** Returns the smallest power of two that is at least N. */
+    private static int tableSizeFor(int n) {
+        int capacity = 1;
+        while (capacity < n && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private int thresholdFor(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.min(capacity * MAX_LOAD, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Mixes the high bits of KEY's hash code into the low bits, which are
+     * the only ones a power-of-two table looks at.
+     */
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
     }
 
     /**
      * Returns a new node to be placed in a hash table bucket
      */
-    private Node createNode(K key, V value) {
-        return new Node(key, value);
+    private Node createNode(K key, V value, int hash) {
+        return new Node(key, value, hash);
     }
 
     /**
@@ -99,57 +197,131 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     private Collection<Node>[] createTable(int tableSize) {
         return new Collection[tableSize];
     }
-    private int computeIndex(K key) {
-        return Math.floorMod(key.hashCode(), buckets.length);
+    /** Returns the bucket for HASH in a table of TABLELENGTH buckets. */
+    private static int computeIndex(int hash, int tableLength) {
+        return hash & (tableLength - 1);
     }
 
-    private Node findNodeByKey(K key, Collection<Node> bucket) {
+    /**
+     * Returns the node for KEY, whose spread hash is HASH, in BUCKET, or
+     * null if there is none. Override this method together with
+     * createBucket() when the bucket type can find a key faster than by
+     * iterating over it.
+     */
+    protected Node findNodeByKey(K key, int hash, Collection<Node> bucket) {
         if (bucket == null) {
             return null;
         }
 
         for (Node node: bucket) {
-            if (node.key.equals(key)) {
+            if (node.hash == hash && node.key.equals(key)) {
                 return node;
             }
         }
         return null;
     }
 
-    private void resize(int newSize) {
-        LinkedList<Node> allNodes = new LinkedList<>();
-        for (K key: this) {
-            V value = get(key);
-            Node node = createNode(key, value);
-            allNodes.add(node);
+    /**
+     * Returns the table holding the bucket for HASH: the old table if an
+     * incremental resize has not reached that bucket yet, else the current one.
+     */
+    private Collection<Node>[] tableFor(int hash) {
+        if (oldBuckets != null && computeIndex(hash, oldBuckets.length) >= rehashIndex) {
+            return oldBuckets;
         }
+        return buckets;
+    }
+
+    private Node findNode(K key) {
+        int hash = hash(key);
+        Collection<Node>[] table = tableFor(hash);
+        return findNodeByKey(key, hash, table[computeIndex(hash, table.length)]);
+    }
 
-        clear();
+    /** Adds the nodes of BUCKET to the buckets of TABLE their cached hashes select. */
+    private void moveBucket(Collection<Node> bucket, Collection<Node>[] table) {
+        for (Node node : bucket) {
+            int index = computeIndex(node.hash, table.length);
+            if (table[index] == null) {
+                table[index] = createBucket();
+            }
+            table[index].add(node);
+        }
+    }
 
+    /**
+     * Grows the table to NEWSIZE buckets. Nodes are reused, and their cached
+     * hashes give the new bucket directly. In incremental mode this only
+     * allocates the new table; the buckets are moved by later operations.
+     */
+    private void resize(int newSize) {
+        if (oldBuckets != null) {
+            finishRehash();
+        }
         Collection<Node>[] newBuckets = createTable(newSize);
+        if (incrementalResize) {
+            oldBuckets = buckets;
+            rehashIndex = 0;
+        } else {
+            for (Collection<Node> bucket : buckets) {
+                if (bucket != null) {
+                    moveBucket(bucket, newBuckets);
+                }
+            }
+        }
         buckets = newBuckets;
-        for (Node node: allNodes) {
-            put(node.key, node.value);
+        resizeThreshold = thresholdFor(newSize);
+        modCount += 1;
+    }
+
+    /** Moves up to REHASH_STEP non-empty old buckets into the current table. */
+    private void rehashStep() {
+        int moved = 0;
+        int emptyVisits = REHASH_STEP * REHASH_EMPTY_VISITS;
+        while (moved < REHASH_STEP && emptyVisits > 0 && rehashIndex < oldBuckets.length) {
+            Collection<Node> bucket = oldBuckets[rehashIndex];
+            if (bucket == null) {
+                emptyVisits -= 1;
+            } else {
+                moveBucket(bucket, buckets);
+                oldBuckets[rehashIndex] = null;
+                moved += 1;
+            }
+            rehashIndex += 1;
+        }
+        if (rehashIndex == oldBuckets.length) {
+            oldBuckets = null;
+        }
+    }
+
+    private void finishRehash() {
+        while (oldBuckets != null) {
+            rehashStep();
         }
     }
 
     @Override
     public void clear() {
         Arrays.fill(buckets, null);
+        oldBuckets = null;
         size = 0;
+        modCount += 1;
     }
 
     @Override
     public boolean containsKey(K key) {
-        V value = get(key);
-        return value != null;
+        if (oldBuckets != null) {
+            rehashStep();
+        }
+        return findNode(key) != null;
     }
 
     @Override
     public V get(K key) {
-        int index = computeIndex(key);
-        Collection<Node> bucket = buckets[index];
-        Node node = findNodeByKey(key, bucket);
+        if (oldBuckets != null) {
+            rehashStep();
+        }
+        Node node = findNode(key);
 
         if (node != null) {
             return node.value;
@@ -162,53 +334,268 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return size;
     }
 
-    private double loadFactor() {
-        return (double) size / buckets.length;
+    @Override
+    public void put(K key, V value) {
+        if (oldBuckets != null) {
+            rehashStep();
+        }
+        int hash = hash(key);
+        Collection<Node>[] table = tableFor(hash);
+        int index = computeIndex(hash, table.length);
+        Collection<Node> bucket = table[index];
+        Node node = findNodeByKey(key, hash, bucket);
+        if (node != null) {
+            node.value = value;
+            return;
+        }
+
+        if (bucket == null) {
+            bucket = createBucket();
+            table[index] = bucket;
+        }
+        bucket.add(createNode(key, value, hash));
+        size += 1;
+        modCount += 1;
+        if (size > resizeThreshold && buckets.length < MAXIMUM_CAPACITY) {
+            resize(buckets.length * 2);
+        }
     }
 
+    /**
+     * Grows the table once so that EXPECTEDSIZE mappings fit without any
+     * further resizing. In incremental mode the move is done immediately.
+     */
     @Override
-    public void put(K key, V value) {
-        if (loadFactor() >= MAX_LOAD) {
-            resize(size * 2);
+    public void ensureCapacity(int expectedSize) {
+        int needed = tableSizeFor((int) Math.min(Math.ceil(expectedSize / MAX_LOAD), MAXIMUM_CAPACITY));
+        if (needed > buckets.length) {
+            resize(needed);
+            if (oldBuckets != null) {
+                finishRehash();
+            }
+        }
+    }
+
+    /**
+     * Copies every mapping in M into this map, sizing the table for the
+     * whole batch first so no put in the loop resizes.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        ensureCapacity(size + m.size());
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
         }
+    }
 
-        int index = computeIndex(key);
-        if (buckets[index] == null) {
-            buckets[index] = createBucket();
+    /** Looks each key up once, rather than once to test and once to read. */
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (oldBuckets != null) {
+                rehashStep();
+            }
+            Node node = findNode(key);
+            if (node != null) {
+                result.put(node.key, node.value);
+            }
         }
-        Collection<Node> bucket = buckets[index];
-        Node node = createNode(key, value);
+        return result;
+    }
 
-        if (containsKey(key)) {
-            remove(key);
+    @Override
+    public int removeAll(Iterable<? extends K> keys) {
+        int removed = 0;
+        for (K key : keys) {
+            if (removeNode(key) != null) {
+                removed += 1;
+            }
         }
-        bucket.add(node);
-        size += 1;
+        return removed;
     }
 
+    /**
+     * Returns a live view of the keys. It copies nothing, and removing a
+     * key from it removes the key's mapping from this map.
+     */
     @Override
     public Set<K> keySet() {
-        HashSet<K> set = new HashSet<>();
-        for (Collection<Node> bucket : buckets) {
-            if (bucket == null) continue;
-            for (Node node : bucket) {
-                set.add(node.key);
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return MyHashMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return findNode((K) o) != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(Object o) {
+                return findNode((K) o) != null && MyHashMap.this.remove((K) o) != null;
+            }
+
+            @Override
+            public void clear() {
+                MyHashMap.this.clear();
+            }
+        };
+    }
+
+    /** Returns a live view of the values. */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new HashIterator<V>() {
+                    @Override
+                    V extract(Node node) {
+                        return node.value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                MyHashMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Returns a live view of the mappings. Its entries are the map's own
+     * nodes, so setValue() on one writes through to the map.
+     */
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new HashIterator<Map.Entry<K, V>>() {
+                    @Override
+                    Map.Entry<K, V> extract(Node node) {
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+                Map.Entry<K, V> entry = (Map.Entry<K, V>) o;
+                Node node = findNode(entry.getKey());
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
+
+            @Override
+            public void clear() {
+                MyHashMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Calls ACTION on every mapping without creating an iterator per entry.
+     * ACTION may read the map or replace values, as with an iterator.
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int expectedModCount = modCount;
+        Collection<Node>[] table = buckets;
+        Collection<Node>[] old = oldBuckets;
+        List<Node> group = old != null ? new ArrayList<>() : null;
+        for (int g = 0; g < groupCount(table, old); g++) {
+            Collection<Node> nodes = groupNodes(g, table, old, group);
+            if (nodes == null) {
+                continue;
+            }
+            for (Node node : nodes) {
+                action.accept(node.key, node.value);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bucket groups in TABLE, whose incremental
+     * resize from OLD is in progress if OLD is not null. Group G holds old
+     * bucket G and every bucket of TABLE whose index is G modulo the old
+     * length, which are all the buckets that moving old bucket G can fill.
+     */
+    private static int groupCount(Object[] table, Object[] old) {
+        return old != null ? old.length : table.length;
+    }
+
+    /**
+     * Returns the nodes of bucket group G of TABLE and OLD. With no resize
+     * in progress that is bucket G itself, possibly null, walked in place.
+     * Otherwise the group is copied into GROUP, since rehash steps taken by
+     * reads move nodes between the tables; a rehash step moves whole
+     * groups, so a group once copied never gains or loses nodes to another.
+     */
+    private Collection<Node> groupNodes(int g, Collection<Node>[] table, Collection<Node>[] old,
+                                        List<Node> group) {
+        if (old == null) {
+            return table[g];
+        }
+        group.clear();
+        int groups = groupCount(table, old);
+        if (old != null && old[g] != null) {
+            group.addAll(old[g]);
+        }
+        for (int i = g; i < table.length; i += groups) {
+            if (table[i] != null) {
+                group.addAll(table[i]);
             }
         }
-        return set;
+        return group;
     }
 
     @Override
     public V remove(K key) {
-        if (!containsKey(key)) {
+        Node node = removeNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /** Removes and returns the node for KEY, or returns null if there is none. */
+    private Node removeNode(K key) {
+        int hash = hash(key);
+        Collection<Node>[] table = tableFor(hash);
+        Collection<Node> bucket = table[computeIndex(hash, table.length)];
+        Node node = findNodeByKey(key, hash, bucket);
+        if (node == null) {
             return null;
         }
-        int index = computeIndex(key);
-        Collection<Node> bucket = buckets[index];
-        Node node = findNodeByKey(key, bucket);
         bucket.remove(node);
         size -= 1;
-        return node.value;
+        modCount += 1;
+        if (oldBuckets != null) {
+            rehashStep();
+        }
+        return node;
     }
 
     @Override
@@ -222,6 +609,82 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
 
     @Override
     public Iterator<K> iterator() {
-        return keySet().iterator();
+        return new HashIterator<K>() {
+            @Override
+            K extract(Node node) {
+                return node.key;
+            }
+        };
+    }
+
+    /**
+     * Walks the map one bucket group at a time. With no resize in progress
+     * the buckets are walked in place; during an incremental resize only the
+     * nodes of the current group are copied. The tables are taken when the
+     * iterator is created; a resize can only start with a structural change,
+     * and the rehash steps of reads and value updates move whole groups, so
+     * no node is missed or returned twice. Throws
+     * ConcurrentModificationException if the map changes structurally other
+     * than through this iterator.
+     */
+    private abstract class HashIterator<T> implements Iterator<T> {
+        private final Collection<Node>[] table = buckets;
+        private final Collection<Node>[] old = oldBuckets;
+        private int nextGroup = 0;
+        private final List<Node> group = old != null ? new ArrayList<>() : null;
+        private Iterator<Node> current = Collections.emptyIterator();
+        private Node lastReturned;
+        private int expectedModCount = modCount;
+
+        /** Returns what this iterator yields for NODE. */
+        abstract T extract(Node node);
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (nextGroup == groupCount(table, old)) {
+                    return false;
+                }
+                Collection<Node> nodes = groupNodes(nextGroup, table, old, group);
+                nextGroup += 1;
+                if (nodes != null) {
+                    current = nodes.iterator();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = current.next();
+            return extract(lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (old == null) {
+                current.remove();
+            } else {
+                // Look the bucket up now, since a rehash step may have moved it.
+                Collection<Node>[] tab = tableFor(lastReturned.hash);
+                tab[computeIndex(lastReturned.hash, tab.length)].remove(lastReturned);
+            }
+            lastReturned = null;
+            size -= 1;
+            modCount += 1;
+            expectedModCount = modCount;
+        }
     }
 }
@@ -0,0 +1,235 @@
+package hashmap;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Hash Table with buckets that start as compact arrays and become balanced
+ * trees when they fill up with keys that are Comparable to each other, so
+ * a flood of colliding hash codes costs O(log n) per lookup instead of O(n).
+ * A tree bucket turns back into an array once removals shrink it.
+ * @author Hao Chen
+ */
+public class MyHashMapAdaptiveBuckets<K, V> extends MyHashMap<K, V> {
+
+    /** An array bucket with more nodes than this becomes a tree if it can. */
+    private final static int TREEIFY_THRESHOLD = 8;
+
+    /** A tree bucket with this many nodes or fewer becomes an array. */
+    private final static int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapAdaptiveBuckets() {
+        super();
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # buckets) should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize, double maxLoad) {
+        super(initialSize, maxLoad);
+    }
+
+    @Override
+    protected Collection<Node> createBucket() {
+        return new AdaptiveBucket();
+    }
+
+    @Override
+    protected Node findNodeByKey(K key, int hash, Collection<Node> bucket) {
+        if (bucket == null) {
+            return null;
+        }
+        return ((AdaptiveBucket) bucket).find(key, hash);
+    }
+
+    /**
+     * A bucket holding its nodes either in an array, scanned linearly, or in
+     * a red-black tree ordered by key. Only keys of a single class that
+     * implements Comparable can be put in a tree; a bucket holding any other
+     * keys stays an array. So does a bucket holding two keys that compareTo
+     * cannot tell apart but equals can, since the tree would keep only one.
+     */
+    private class AdaptiveBucket extends AbstractCollection<Node> {
+        /** Nodes of an array bucket, packed at the front; null for a tree bucket. */
+        private Node[] nodes = newArray(2);
+        private int size = 0;
+        /** Nodes of a tree bucket by key; null for an array bucket. */
+        private TreeMap<K, Node> tree;
+        /** False once this bucket has held keys that cannot share a tree. */
+        private boolean treeable = true;
+
+        @SuppressWarnings("unchecked")
+        private Node[] newArray(int length) {
+            return (Node[]) new MyHashMap<?, ?>.Node[length];
+        }
+
+        Node find(K key, int hash) {
+            if (tree != null) {
+                if (canShareTree(key, tree.firstKey())) {
+                    // compareTo may call a key equal to one that equals does not.
+                    Node node = tree.get(key);
+                    return node != null && node.hash == hash && node.key.equals(key) ? node : null;
+                }
+                // A key of another class can still be equal to one in the tree.
+                for (Node node : tree.values()) {
+                    if (node.hash == hash && node.key.equals(key)) {
+                        return node;
+                    }
+                }
+                return null;
+            }
+            for (int i = 0; i < size; i++) {
+                Node node = nodes[i];
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean add(Node node) {
+            if (tree != null) {
+                // A key already in the tree by compareTo is a different key
+                // by equals, as NODE is new to this map.
+                if (canShareTree(node.key, tree.firstKey()) && !tree.containsKey(node.key)) {
+                    tree.put(node.key, node);
+                    return true;
+                }
+                untreeify();
+                treeable = false;
+            }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size] = node;
+            size += 1;
+            if (size > TREEIFY_THRESHOLD && treeable) {
+                treeify();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            MyHashMap<?, ?>.Node node = (MyHashMap<?, ?>.Node) o;
+            if (tree != null) {
+                if (tree.get(node.key) != node) {
+                    return false;
+                }
+                tree.remove(node.key);
+                if (tree.size() <= UNTREEIFY_THRESHOLD) {
+                    untreeify();
+                }
+                return true;
+            }
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    size -= 1;
+                    nodes[i] = nodes[size];
+                    nodes[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return tree != null ? tree.size() : size;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            if (tree != null) {
+                return tree.values().iterator();
+            }
+            return new Iterator<Node>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < size;
+                }
+
+                @Override
+                public Node next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    i += 1;
+                    return nodes[i - 1];
+                }
+
+                @Override
+                public void remove() {
+                    // Shift rather than swap in the last node, which this
+                    // iterator has not returned yet.
+                    i -= 1;
+                    size -= 1;
+                    System.arraycopy(nodes, i + 1, nodes, i, size - i);
+                    nodes[size] = null;
+                }
+            };
+        }
+
+        /** Returns true if KEY can be ordered against OTHER by compareTo. */
+        private boolean canShareTree(K key, K other) {
+            return key instanceof Comparable && key.getClass() == other.getClass();
+        }
+
+        /** Moves the nodes into a tree, unless some pair of keys cannot be
+         *  compared or compareTo finds two of them equal. */
+        @SuppressWarnings("unchecked")
+        private void treeify() {
+            for (int i = 0; i < size; i++) {
+                if (!canShareTree(nodes[i].key, nodes[0].key)) {
+                    treeable = false;
+                    return;
+                }
+            }
+            TreeMap<K, Node> newTree = new TreeMap<>((a, b) -> ((Comparable<K>) a).compareTo(b));
+            for (int i = 0; i < size; i++) {
+                if (newTree.put(nodes[i].key, nodes[i]) != null) {
+                    treeable = false;
+                    return;
+                }
+            }
+            tree = newTree;
+            nodes = null;
+            size = 0;
+        }
+
+        private void untreeify() {
+            nodes = newArray(Math.max(2, tree.size() * 2));
+            size = 0;
+            for (Node node : tree.values()) {
+                nodes[size] = node;
+                size += 1;
+            }
+            tree = null;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package hashmap;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A bucketized cuckoo hash table. Every key has two candidate buckets of
+ *  SLOTS_PER_BUCKET slots, chosen by two different hash functions, and is
+ *  always stored in one of them or in a small stash. A lookup therefore
+ *  reads at most two buckets plus the stash, no matter how full the table
+ *  is, which bounds the tail latency of get().
+ *
+ *  put() places a new key in a free slot of either bucket. If both are full
+ *  it evicts a random entry of one of them and moves that entry to its other
+ *  bucket, repeating until some entry lands in a free slot. An entry still
+ *  homeless after MAX_KICKS evictions goes to the stash, and the table
+ *  doubles once the stash overflows.
+ *
+ *  The guarantee assumes reasonably distributed hash codes: keys that share
+ *  a hash code share both buckets, and beyond 2 * SLOTS_PER_BUCKET of them
+ *  the overflow accumulates in the stash instead of growing the table.
+ *
+ *  Assumes null keys will never be inserted, and does not resize down upon remove().
+ *  @author Hao Chen
+ */
+public class MyHashMapCuckoo<K, V> implements Map61B<K, V> {
+
+    /* Instance Variables */
+    /** Slot i belongs to bucket i / SLOTS_PER_BUCKET. */
+    private Object[] keys;
+    private Object[] values;
+    /** Spread hash of the key in each slot, or EMPTY if the slot is free. */
+    private int[] hashes;
+    private int bucketMask;
+    private int resizeThreshold;
+    private final double MAX_LOAD;
+
+    /** Entries that could not be placed in either of their buckets. */
+    private Object[] stashKeys;
+    private Object[] stashValues;
+    private int[] stashHashes;
+    private int stashSize = 0;
+
+    /** Entries in the table and the stash. */
+    private int size = 0;
+    /** Incremented on every structural change, for fail-fast iteration. */
+    private int modCount = 0;
+    /** State of the xorshift generator that picks eviction victims. */
+    private int random = 0x2545F491;
+
+    private final static int EMPTY = 0;
+
+    private final static int SLOTS_PER_BUCKET = 4;
+
+    /** Stash entries tolerated before put() doubles the table. */
+    private final static int STASH_SIZE = 4;
+
+    /** Evictions tried before a new entry is sent to the stash. */
+    private final static int MAX_KICKS = 256;
+
+    private final static int INITIAL_SIZE = 16;
+
+    private final static double DEFAULT_MAX_LOAD = 0.9;
+
+
+    /** Constructors */
+    public MyHashMapCuckoo() {
+        this(INITIAL_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyHashMapCuckoo(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Creates a table with room for initialSize slots, rounded up to a
+     * power of two. The load factor (# items / # slots) is always kept
+     * at or below maxLoad, which must be less than 1.
+     *
+     * @param initialSize initial number of slots
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapCuckoo(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be between 0 and 1: " + maxLoad);
+        }
+        MAX_LOAD = maxLoad;
+        createTable(tableSizeFor(initialSize));
+        stashKeys = new Object[STASH_SIZE + 1];
+        stashValues = new Object[STASH_SIZE + 1];
+        stashHashes = new int[STASH_SIZE + 1];
+    }
+
+    /** Returns the smallest power of two that is at least N and holds two buckets. */
+    private static int tableSizeFor(int n) {
+        int capacity = 2 * SLOTS_PER_BUCKET;
+        while (capacity < n && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void createTable(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        bucketMask = capacity / SLOTS_PER_BUCKET - 1;
+        resizeThreshold = (int) (capacity * MAX_LOAD);
+    }
+
+    /**
+     * Mixes the high bits of KEY's hash code into the low bits used for
+     * indexing, and never returns EMPTY.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return h == EMPTY ? 1 : h;
+    }
+
+    /** Returns the first bucket of an entry with spread hash H. */
+    private int bucket1(int h) {
+        return h & bucketMask;
+    }
+
+    /**
+     * Returns the second bucket of an entry with spread hash H. The golden
+     * ratio multiply makes it depend on all the bits of H, not just the low
+     * bits that pick the first bucket.
+     */
+    private int bucket2(int h) {
+        int g = h * 0x9E3779B9;
+        return (g ^ (g >>> 15)) & bucketMask;
+    }
+
+    /** Returns the slot in BUCKET holding KEY with spread hash H, or -1. */
+    private int findInBucket(int bucket, int h, Object key) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (hashes[slot] == h && keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the table slot holding KEY with spread hash H, or -1 if it is not in the table. */
+    private int findSlot(int h, Object key) {
+        int slot = findInBucket(bucket1(h), h, key);
+        if (slot < 0) {
+            slot = findInBucket(bucket2(h), h, key);
+        }
+        return slot;
+    }
+
+    /** Returns the stash index holding KEY with spread hash H, or -1. */
+    private int findStash(int h, Object key) {
+        for (int i = 0; i < stashSize; i++) {
+            if (stashHashes[i] == h && stashKeys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns a free slot in BUCKET, or -1 if it is full. */
+    private int freeSlot(int bucket) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (hashes[slot] == EMPTY) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void setSlot(int slot, int h, Object key, Object value) {
+        hashes[slot] = h;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private int nextRandom() {
+        random ^= random << 13;
+        random ^= random >>> 17;
+        random ^= random << 5;
+        return random;
+    }
+
+    /**
+     * Places a key known to be absent in one of its buckets, evicting other
+     * entries to their alternate buckets as needed. Returns true on success.
+     * On failure the entry left homeless, which may not be the one passed
+     * in, has been added to the stash.
+     */
+    private boolean insertAbsent(int h, Object key, Object value) {
+        int bucket = bucket1(h);
+        int slot = freeSlot(bucket);
+        if (slot < 0) {
+            bucket = bucket2(h);
+            slot = freeSlot(bucket);
+        }
+        for (int kicks = 0; slot < 0 && kicks < MAX_KICKS; kicks++) {
+            int r = nextRandom();
+            if ((r & 0x100) == 0) {
+                bucket = bucket1(h) == bucket ? bucket2(h) : bucket1(h);
+            }
+            int victim = bucket * SLOTS_PER_BUCKET + (r & (SLOTS_PER_BUCKET - 1));
+            int victimHash = hashes[victim];
+            Object victimKey = keys[victim];
+            Object victimValue = values[victim];
+            setSlot(victim, h, key, value);
+            h = victimHash;
+            key = victimKey;
+            value = victimValue;
+            // Carry the victim to the bucket it was not just evicted from.
+            bucket = bucket1(h) == bucket ? bucket2(h) : bucket1(h);
+            slot = freeSlot(bucket);
+        }
+        if (slot >= 0) {
+            setSlot(slot, h, key, value);
+            return true;
+        }
+        addToStash(h, key, value);
+        return false;
+    }
+
+    private void addToStash(int h, Object key, Object value) {
+        if (stashSize == stashHashes.length) {
+            stashKeys = Arrays.copyOf(stashKeys, stashSize * 2);
+            stashValues = Arrays.copyOf(stashValues, stashSize * 2);
+            stashHashes = Arrays.copyOf(stashHashes, stashSize * 2);
+        }
+        stashHashes[stashSize] = h;
+        stashKeys[stashSize] = key;
+        stashValues[stashSize] = value;
+        stashSize += 1;
+    }
+
+    private void removeFromStash(int i) {
+        stashSize -= 1;
+        stashHashes[i] = stashHashes[stashSize];
+        stashKeys[i] = stashKeys[stashSize];
+        stashValues[i] = stashValues[stashSize];
+        stashKeys[stashSize] = null;
+        stashValues[stashSize] = null;
+    }
+
+    /** Moves every entry, stash included, into a table of NEWCAPACITY slots. */
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        Object[] oldStashKeys = stashKeys;
+        Object[] oldStashValues = stashValues;
+        int[] oldStashHashes = stashHashes;
+        int oldStashSize = stashSize;
+        createTable(newCapacity);
+        stashKeys = new Object[STASH_SIZE + 1];
+        stashValues = new Object[STASH_SIZE + 1];
+        stashHashes = new int[STASH_SIZE + 1];
+        stashSize = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY) {
+                insertAbsent(oldHashes[i], oldKeys[i], oldValues[i]);
+            }
+        }
+        for (int i = 0; i < oldStashSize; i++) {
+            insertAbsent(oldStashHashes[i], oldStashKeys[i], oldStashValues[i]);
+        }
+    }
+
+    @Override
+    public void clear() {
+        createTable(keys.length);
+        stashKeys = new Object[STASH_SIZE + 1];
+        stashValues = new Object[STASH_SIZE + 1];
+        stashHashes = new int[STASH_SIZE + 1];
+        stashSize = 0;
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        int h = hash(key);
+        return findSlot(h, key) >= 0 || findStash(h, key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int h = hash(key);
+        int slot = findSlot(h, key);
+        if (slot >= 0) {
+            return (V) values[slot];
+        }
+        if (stashSize > 0) {
+            int i = findStash(h, key);
+            if (i >= 0) {
+                return (V) stashValues[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int h = hash(key);
+        int slot = findSlot(h, key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        int i = findStash(h, key);
+        if (i >= 0) {
+            stashValues[i] = value;
+            return;
+        }
+        if (size >= resizeThreshold) {
+            resize(keys.length * 2);
+        }
+        size += 1;
+        modCount += 1;
+        // A stash that overflows while the table is still mostly empty holds
+        // keys with equal hash codes, which no table size would separate.
+        if (!insertAbsent(h, key, value) && stashSize > STASH_SIZE && size > keys.length / 4) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Grows the table so that EXPECTEDSIZE entries fit without exceeding the
+     * maximum load factor.
+     */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.min(Math.ceil(expectedSize / MAX_LOAD), 1 << 30));
+        if (capacity > keys.length) {
+            resize(capacity);
+            modCount += 1;
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int h = hash(key);
+        int slot = findSlot(h, key);
+        V value;
+        if (slot >= 0) {
+            value = (V) values[slot];
+            setSlot(slot, EMPTY, null, null);
+            if (stashSize > 0) {
+                unstash();
+            }
+        } else {
+            int i = findStash(h, key);
+            if (i < 0) {
+                return null;
+            }
+            value = (V) stashValues[i];
+            removeFromStash(i);
+        }
+        size -= 1;
+        modCount += 1;
+        return value;
+    }
+
+    /** Moves stash entries back into the table wherever one of their buckets has room. */
+    private void unstash() {
+        for (int i = stashSize - 1; i >= 0; i--) {
+            int h = stashHashes[i];
+            int slot = freeSlot(bucket1(h));
+            if (slot < 0) {
+                slot = freeSlot(bucket2(h));
+            }
+            if (slot >= 0) {
+                setSlot(slot, h, stashKeys[i], stashValues[i]);
+                removeFromStash(i);
+            }
+        }
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V v = get(key);
+        if (value.equals(v)) {
+            return remove(key);
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Walks the slot array directly, skipping empty slots, and then the stash. */
+    private class KeyIterator implements Iterator<K> {
+        /** Index into the table, then hashes.length + index into the stash. */
+        private int position = nextOccupied(0);
+        private final int expectedModCount = modCount;
+
+        private int nextOccupied(int from) {
+            while (from < hashes.length && hashes[from] == EMPTY) {
+                from += 1;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < hashes.length + stashSize;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (position >= hashes.length) {
+                return (K) stashKeys[position++ - hashes.length];
+            }
+            K key = (K) keys[position];
+            position = nextOccupied(position + 1);
+            return key;
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package hashmap;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A hash array mapped trie. Each level of the trie consumes five bits of a
+ *  key's hash, and each node keeps a 32-bit bitmap of which of its 32
+ *  possible children exist, so it stores only those in a compact array.
+ *  Entries sit inline in the node where their hash prefix first becomes
+ *  unique; keys whose 32-bit hashes are equal share a collision node at the
+ *  bottom of the trie.
+ *
+ *  Nodes are shared between maps, which makes snapshot() O(1): it hands out
+ *  a new map with the same root. Every node records the map edit that
+ *  created it, and a map changes a node in place only if it created the
+ *  node since its last snapshot. Otherwise it copies the path from the root
+ *  to the change, leaving nodes the snapshot can see untouched.
+ *
+ *  Between snapshots the map is therefore transient: a run of updates, such
+ *  as a bulk load, copies each node at most once and then edits it in
+ *  place. A snapshot that is never modified can be read by any number of
+ *  threads once it has been safely published to them, while the writer
+ *  keeps modifying the original map.
+ *
+ *  Assumes null keys and values will never be inserted.
+ *  @author Hao Chen
+ */
+public class MyHashMapHAMT<K, V> implements Map61B<K, V> {
+
+    /** Returned by node lookups for an absent key. */
+    private static final Object NOT_FOUND = new Object();
+
+    /** Bits of the hash consumed by each level. */
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** What an update did, filled in by the nodes along its path. */
+    private static class Result {
+        /** Previous value of the key, or NOT_FOUND if it was added or absent. */
+        Object oldValue = NOT_FOUND;
+    }
+
+    /** A node of the trie. */
+    private abstract static class TrieNode {
+        /** The edit that created this node; only that edit may change it in place. */
+        final Object edit;
+
+        TrieNode(Object edit) {
+            this.edit = edit;
+        }
+
+        /** Returns the value of KEY with hash HASH below this node at depth SHIFT, or NOT_FOUND. */
+        abstract Object get(Object key, int hash, int shift);
+
+        /**
+         * Maps KEY to VALUE below this node and returns the node that replaces
+         * it, which is this node if it could be changed in place by EDIT.
+         */
+        abstract TrieNode put(Object edit, Object key, int hash, Object value, int shift, Result result);
+
+        /** Removes KEY below this node and returns the node that replaces it. */
+        abstract TrieNode remove(Object edit, Object key, int hash, int shift, Result result);
+
+        /** Returns the number of entries stored inline in this node. */
+        abstract int entryCount();
+
+        /** Returns the number of child nodes. */
+        abstract int childCount();
+
+        abstract Object keyAt(int i);
+
+        abstract Object valueAt(int i);
+
+        abstract TrieNode childAt(int i);
+    }
+
+    /**
+     * An inner node. CONTENT holds the inline entries as key, value pairs
+     * in bitmap order, followed by the child nodes in bitmap order.
+     */
+    private static final class BitmapNode extends TrieNode {
+        /** Bit i is set if the entry for hash fragment i is inline. */
+        int dataMap;
+        /** Bit i is set if hash fragment i leads to a child node. */
+        int nodeMap;
+        Object[] content;
+
+        BitmapNode(Object edit, int dataMap, int nodeMap, Object[] content) {
+            super(edit);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return 2 * Integer.bitCount(dataMap) + Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        /** Returns this node if EDIT owns it, otherwise a copy owned by EDIT. */
+        private BitmapNode editable(Object edit) {
+            if (this.edit == edit) {
+                return this;
+            }
+            return new BitmapNode(edit, dataMap, nodeMap, content.clone());
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                return key.equals(content[2 * i]) ? content[2 * i + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return ((TrieNode) content[nodeIndex(bit)]).get(key, hash, shift + BITS);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        TrieNode put(Object edit, Object key, int hash, Object value, int shift, Result result) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                Object existingKey = content[2 * i];
+                if (key.equals(existingKey)) {
+                    result.oldValue = content[2 * i + 1];
+                    BitmapNode node = editable(edit);
+                    node.content[2 * i + 1] = value;
+                    return node;
+                }
+                // Push both entries down into a new child.
+                TrieNode child = merge(edit, existingKey, hash(existingKey), content[2 * i + 1],
+                        key, hash, value, shift + BITS);
+                return dataToNode(edit, bit, child);
+            }
+            if ((nodeMap & bit) != 0) {
+                int j = nodeIndex(bit);
+                TrieNode child = (TrieNode) content[j];
+                TrieNode newChild = child.put(edit, key, hash, value, shift + BITS, result);
+                if (newChild == child) {
+                    return this;
+                }
+                BitmapNode node = editable(edit);
+                node.content[j] = newChild;
+                return node;
+            }
+            int i = dataIndex(bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, 2 * i);
+            newContent[2 * i] = key;
+            newContent[2 * i + 1] = value;
+            System.arraycopy(content, 2 * i, newContent, 2 * i + 2, content.length - 2 * i);
+            return withContent(edit, dataMap | bit, nodeMap, newContent);
+        }
+
+        @Override
+        TrieNode remove(Object edit, Object key, int hash, int shift, Result result) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                if (!key.equals(content[2 * i])) {
+                    return this;
+                }
+                result.oldValue = content[2 * i + 1];
+                Object[] newContent = new Object[content.length - 2];
+                System.arraycopy(content, 0, newContent, 0, 2 * i);
+                System.arraycopy(content, 2 * i + 2, newContent, 2 * i, content.length - 2 * i - 2);
+                return withContent(edit, dataMap ^ bit, nodeMap, newContent);
+            }
+            if ((nodeMap & bit) != 0) {
+                int j = nodeIndex(bit);
+                TrieNode child = (TrieNode) content[j];
+                TrieNode newChild = child.remove(edit, key, hash, shift + BITS, result);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild.childCount() == 0 && newChild.entryCount() == 1) {
+                    // Keep the trie canonical: a lone entry moves up into this node.
+                    return nodeToData(edit, bit, newChild.keyAt(0), newChild.valueAt(0));
+                }
+                BitmapNode node = editable(edit);
+                node.content[j] = newChild;
+                return node;
+            }
+            return this;
+        }
+
+        /** Returns this node with the given maps and content, changed in place if EDIT owns it. */
+        private BitmapNode withContent(Object edit, int newDataMap, int newNodeMap, Object[] newContent) {
+            if (this.edit == edit) {
+                dataMap = newDataMap;
+                nodeMap = newNodeMap;
+                content = newContent;
+                return this;
+            }
+            return new BitmapNode(edit, newDataMap, newNodeMap, newContent);
+        }
+
+        /** Replaces the inline entry at BIT with CHILD. */
+        private BitmapNode dataToNode(Object edit, int bit, TrieNode child) {
+            int i = dataIndex(bit);
+            // The child's index once the entry has left the data section.
+            int j = nodeIndex(bit) - 2;
+            Object[] newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, 2 * i);
+            System.arraycopy(content, 2 * i + 2, newContent, 2 * i, j - 2 * i);
+            newContent[j] = child;
+            System.arraycopy(content, j + 2, newContent, j + 1, content.length - j - 2);
+            return withContent(edit, dataMap ^ bit, nodeMap | bit, newContent);
+        }
+
+        /** Replaces the child at BIT with the inline entry KEY, VALUE. */
+        private BitmapNode nodeToData(Object edit, int bit, Object key, Object value) {
+            int i = dataIndex(bit);
+            int j = nodeIndex(bit);
+            Object[] newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, 2 * i);
+            newContent[2 * i] = key;
+            newContent[2 * i + 1] = value;
+            System.arraycopy(content, 2 * i, newContent, 2 * i + 2, j - 2 * i);
+            System.arraycopy(content, j + 1, newContent, j + 2, content.length - j - 1);
+            return withContent(edit, dataMap | bit, nodeMap ^ bit, newContent);
+        }
+
+        @Override
+        int entryCount() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int childCount() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Object keyAt(int i) {
+            return content[2 * i];
+        }
+
+        @Override
+        Object valueAt(int i) {
+            return content[2 * i + 1];
+        }
+
+        @Override
+        TrieNode childAt(int i) {
+            return (TrieNode) content[2 * entryCount() + i];
+        }
+    }
+
+    /** Holds the entries of keys whose 32-bit hashes are all equal, as key, value pairs. */
+    private static final class CollisionNode extends TrieNode {
+        final int hash;
+        Object[] content;
+
+        CollisionNode(Object edit, int hash, Object[] content) {
+            super(edit);
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private int find(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private CollisionNode withContent(Object edit, Object[] newContent) {
+            if (this.edit == edit) {
+                content = newContent;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newContent);
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int i = find(key);
+            return i < 0 ? NOT_FOUND : content[i + 1];
+        }
+
+        @Override
+        TrieNode put(Object edit, Object key, int hash, Object value, int shift, Result result) {
+            int i = find(key);
+            Object[] newContent;
+            if (i >= 0) {
+                result.oldValue = content[i + 1];
+                newContent = this.edit == edit ? content : content.clone();
+                newContent[i + 1] = value;
+            } else {
+                newContent = new Object[content.length + 2];
+                System.arraycopy(content, 0, newContent, 0, content.length);
+                newContent[content.length] = key;
+                newContent[content.length + 1] = value;
+            }
+            return withContent(edit, newContent);
+        }
+
+        @Override
+        TrieNode remove(Object edit, Object key, int hash, int shift, Result result) {
+            int i = find(key);
+            if (i < 0) {
+                return this;
+            }
+            result.oldValue = content[i + 1];
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, i);
+            System.arraycopy(content, i + 2, newContent, i, content.length - i - 2);
+            return withContent(edit, newContent);
+        }
+
+        @Override
+        int entryCount() {
+            return content.length / 2;
+        }
+
+        @Override
+        int childCount() {
+            return 0;
+        }
+
+        @Override
+        Object keyAt(int i) {
+            return content[2 * i];
+        }
+
+        @Override
+        Object valueAt(int i) {
+            return content[2 * i + 1];
+        }
+
+        @Override
+        TrieNode childAt(int i) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Returns a node at depth SHIFT holding the two entries with distinct
+     * keys K1 and K2, nested as deep as their hashes H1 and H2 agree.
+     */
+    private static TrieNode merge(Object edit, Object k1, int h1, Object v1,
+                                  Object k2, int h2, Object v2, int shift) {
+        if (shift >= Integer.SIZE) {
+            return new CollisionNode(edit, h1, new Object[] {k1, v1, k2, v2});
+        }
+        int f1 = (h1 >>> shift) & MASK;
+        int f2 = (h2 >>> shift) & MASK;
+        if (f1 == f2) {
+            TrieNode child = merge(edit, k1, h1, v1, k2, h2, v2, shift + BITS);
+            return new BitmapNode(edit, 0, 1 << f1, new Object[] {child});
+        }
+        Object[] content = f1 < f2 ? new Object[] {k1, v1, k2, v2} : new Object[] {k2, v2, k1, v1};
+        return new BitmapNode(edit, (1 << f1) | (1 << f2), 0, content);
+    }
+
+    /** Mixes the high bits of KEY's hash code into the low bits used by the top levels. */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /* Instance Variables */
+    private TrieNode root;
+    private int size;
+    /** Identifies nodes this map may change in place; replaced by every snapshot. */
+    private Object edit = new Object();
+    /** Incremented on every structural change, for fail-fast iteration. */
+    private int modCount = 0;
+
+
+    /** Constructors */
+    public MyHashMapHAMT() {
+        clear();
+    }
+
+    private MyHashMapHAMT(TrieNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns an independent map with the same contents in O(1) time. The
+     * two maps share every node until one of them is modified, and a change
+     * to either one is never visible in the other.
+     */
+    public MyHashMapHAMT<K, V> snapshot() {
+        // From now on this map copies the nodes it shares with the snapshot.
+        edit = new Object();
+        return new MyHashMapHAMT<>(root, size);
+    }
+
+    @Override
+    public void clear() {
+        root = new BitmapNode(edit, 0, 0, new Object[0]);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return root.get(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Object value = root.get(key, hash(key), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Result result = new Result();
+        root = root.put(edit, key, hash(key), value, 0, result);
+        if (result.oldValue == NOT_FOUND) {
+            size += 1;
+            modCount += 1;
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        Result result = new Result();
+        root = root.remove(edit, key, hash(key), 0, result);
+        if (result.oldValue == NOT_FOUND) {
+            return null;
+        }
+        size -= 1;
+        modCount += 1;
+        return (V) result.oldValue;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V v = get(key);
+        if (value.equals(v)) {
+            return remove(key);
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Visits the inline entries of each node before descending into its
+     * children, keeping the path from the root on an explicit stack.
+     */
+    private class KeyIterator implements Iterator<K> {
+        /** The trie is at most seven levels of bitmap nodes above a collision node. */
+        private final TrieNode[] nodes = new TrieNode[8];
+        /** Next child to descend into, per level. */
+        private final int[] nextChild = new int[8];
+        private int depth = 0;
+        /** Node whose entries are being returned, and the next entry to return. */
+        private TrieNode current;
+        private int nextEntry = 0;
+        private final int expectedModCount = modCount;
+
+        KeyIterator() {
+            nodes[0] = root;
+            current = root;
+            advance();
+        }
+
+        /** Moves to the next node with inline entries unless CURRENT still has some. */
+        private void advance() {
+            while (current != null && nextEntry >= current.entryCount()) {
+                current = null;
+                while (depth >= 0 && nextChild[depth] >= nodes[depth].childCount()) {
+                    depth -= 1;
+                }
+                if (depth < 0) {
+                    return;
+                }
+                TrieNode child = nodes[depth].childAt(nextChild[depth]);
+                nextChild[depth] += 1;
+                depth += 1;
+                nodes[depth] = child;
+                nextChild[depth] = 0;
+                current = child;
+                nextEntry = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = (K) current.keyAt(nextEntry);
+            nextEntry += 1;
+            advance();
+            return key;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package hashmap;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  An open-addressing hash table. Keys, values and hash codes live in three
+ *  parallel arrays, so there is no Node or bucket object per entry and a
+ *  probe walks consecutive slots.
+ *
+ *  Collisions are resolved by Robin Hood linear probing: an entry being
+ *  inserted takes the slot of any entry that is closer to its home slot,
+ *  which keeps probe lengths short and lets a failed lookup stop early.
+ *  remove() uses backward-shift deletion instead of tombstones.
+ *
+ *  Assumes null keys will never be inserted, and does not resize down upon remove().
+ *  @author Hao Chen
+ */
+public class MyHashMapOpenAddressing<K, V> implements Map61B<K, V> {
+
+    /* Instance Variables */
+    private Object[] keys;
+    private Object[] values;
+    /** Spread hash of the key in each slot, or EMPTY if the slot is free. */
+    private int[] hashes;
+    private int mask;
+    private int resizeThreshold;
+    private final double MAX_LOAD;
+
+    private int size = 0;
+    /** Incremented on every structural change, for fail-fast iteration. */
+    private int modCount = 0;
+
+    private final static int EMPTY = 0;
+
+    private final static int INITIAL_SIZE = 16;
+
+    private final static double DEFAULT_MAX_LOAD = 0.75;
+
+
+    /** Constructors */
+    public MyHashMapOpenAddressing() {
+        this(INITIAL_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyHashMapOpenAddressing(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Creates a table with room for initialSize slots, rounded up to a
+     * power of two. The load factor (# items / # slots) is always kept
+     * below maxLoad, which must be less than 1.
+     *
+     * @param initialSize initial number of slots
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapOpenAddressing(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be between 0 and 1: " + maxLoad);
+        }
+        MAX_LOAD = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    /** Returns the smallest power of two that is at least N and at least 2. */
+    private static int tableSizeFor(int n) {
+        int capacity = 2;
+        while (capacity < n && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void createTable(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) Math.min(capacity * MAX_LOAD, capacity - 1);
+    }
+
+    /**
+     * Mixes the high bits of KEY's hash code into the low bits used for
+     * indexing, and never returns EMPTY.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return h == EMPTY ? 1 : h;
+    }
+
+    /** Returns how far the entry with hash H in SLOT is from its home slot. */
+    private int probeDistance(int h, int slot) {
+        return (slot - (h & mask)) & mask;
+    }
+
+    /** Returns the slot holding KEY, or -1 if KEY is absent. */
+    private int findSlot(Object key) {
+        int h = hash(key);
+        int slot = h & mask;
+        for (int distance = 0; ; distance += 1) {
+            int slotHash = hashes[slot];
+            // An entry closer to home than we are means KEY would have
+            // displaced it, so KEY is not in the table.
+            if (slotHash == EMPTY || probeDistance(slotHash, slot) < distance) {
+                return -1;
+            }
+            if (slotHash == h && keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Inserts a key known to be absent, swapping it with any entry that is
+     * closer to its home slot than the one being carried.
+     */
+    private void insertAbsent(int h, Object key, Object value) {
+        int slot = h & mask;
+        int distance = 0;
+        while (hashes[slot] != EMPTY) {
+            int slotDistance = probeDistance(hashes[slot], slot);
+            if (slotDistance < distance) {
+                int displacedHash = hashes[slot];
+                Object displacedKey = keys[slot];
+                Object displacedValue = values[slot];
+                hashes[slot] = h;
+                keys[slot] = key;
+                values[slot] = value;
+                h = displacedHash;
+                key = displacedKey;
+                value = displacedValue;
+                distance = slotDistance;
+            }
+            slot = (slot + 1) & mask;
+            distance += 1;
+        }
+        hashes[slot] = h;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /** Moves every entry into a table of NEWCAPACITY slots, reusing the cached hashes. */
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        createTable(newCapacity);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY) {
+                insertAbsent(oldHashes[i], oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        createTable(keys.length);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findSlot(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if (size >= resizeThreshold) {
+            resize(keys.length * 2);
+        }
+        insertAbsent(hash(key), key, value);
+        size += 1;
+        modCount += 1;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        // Shift the rest of the probe run back one slot until we reach an
+        // empty slot or an entry already in its home slot.
+        int next = (slot + 1) & mask;
+        while (hashes[next] != EMPTY && probeDistance(hashes[next], next) > 0) {
+            hashes[slot] = hashes[next];
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        hashes[slot] = EMPTY;
+        keys[slot] = null;
+        values[slot] = null;
+        size -= 1;
+        modCount += 1;
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V v = get(key);
+        if (value.equals(v)) {
+            return remove(key);
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Walks the slot array directly, skipping empty slots. */
+    private class KeyIterator implements Iterator<K> {
+        private int slot = nextOccupied(0);
+        private final int expectedModCount = modCount;
+
+        private int nextOccupied(int from) {
+            while (from < hashes.length && hashes[from] == EMPTY) {
+                from += 1;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < hashes.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = (K) keys[slot];
+            slot = nextOccupied(slot + 1);
+            return key;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package hashmap;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A Swiss table: an open-addressing hash table probed a group of
+ *  GROUP_SIZE slots at a time. Beside the key and value arrays it keeps one
+ *  control byte per slot, which is EMPTY, DELETED, or, for a full slot, a
+ *  7-bit fingerprint of the key's hash. The control bytes are packed eight
+ *  to a long, so a lookup tests a whole group against a fingerprint with a
+ *  few word-wide (SWAR) operations and calls equals() only on the slots
+ *  whose fingerprint matches, which is rarely more than the one it wants.
+ *
+ *  A lookup probes groups in triangular order and stops at the first group
+ *  that has an EMPTY slot. remove() marks a slot DELETED unless its group
+ *  has an EMPTY slot, in which case no probe ever continued past the group
+ *  and the slot can become EMPTY again. DELETED slots are reused by put()
+ *  and cleared out when the table is rebuilt.
+ *
+ *  Assumes null keys will never be inserted, and does not resize down upon remove().
+ *  @author Hao Chen
+ */
+public class MyHashMapSwiss<K, V> implements Map61B<K, V> {
+
+    /* Instance Variables */
+    private Object[] keys;
+    private Object[] values;
+    /** Control byte of slot i is byte i % 8 of control[i / 8]. */
+    private long[] control;
+    private int groupMask;
+    /** Number of EMPTY slots that may still be filled before the table is rebuilt. */
+    private int growthLeft;
+    private final double MAX_LOAD;
+
+    private int size = 0;
+    /** Incremented on every structural change, for fail-fast iteration. */
+    private int modCount = 0;
+
+    private final static int GROUP_SIZE = 16;
+
+    /** Control bytes. A full slot holds its 7-bit fingerprint, so its high bit is clear. */
+    private final static int EMPTY = 0x80;
+    private final static int DELETED = 0xFE;
+
+    /** Eight copies of a byte, and eight copies of its low and high bits. */
+    private final static long BYTES = 0x0101010101010101L;
+    private final static long LOW_BITS = BYTES;
+    private final static long HIGH_BITS = 0x8080808080808080L;
+
+    private final static long ALL_EMPTY = EMPTY * BYTES;
+
+    private final static int INITIAL_SIZE = 16;
+
+    private final static double DEFAULT_MAX_LOAD = 0.875;
+
+
+    /** Constructors */
+    public MyHashMapSwiss() {
+        this(INITIAL_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyHashMapSwiss(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Creates a table with room for initialSize slots, rounded up to a
+     * power of two and a whole number of groups. The load factor
+     * (# items / # slots) is always kept at or below maxLoad, which must be
+     * less than 1.
+     *
+     * @param initialSize initial number of slots
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapSwiss(int initialSize, double maxLoad) {
+        if (maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException("maxLoad must be between 0 and 1: " + maxLoad);
+        }
+        MAX_LOAD = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    /** Returns the smallest power of two that is at least N and at least one group. */
+    private static int tableSizeFor(int n) {
+        int capacity = GROUP_SIZE;
+        while (capacity < n && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void createTable(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        control = new long[capacity / 8];
+        Arrays.fill(control, ALL_EMPTY);
+        groupMask = capacity / GROUP_SIZE - 1;
+        // Leave at least one EMPTY slot so that every probe terminates.
+        growthLeft = (int) Math.min(capacity * MAX_LOAD, capacity - 1);
+    }
+
+    /**
+     * Scrambles KEY's hash code so that the low bits, which pick the first
+     * group, and the top seven bits, which form the fingerprint, both
+     * depend on all of its bits.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int fingerprint(int hash) {
+        return hash >>> 25;
+    }
+
+    /**
+     * Returns a word with the high bit set in each byte of WORD equal to B.
+     * Bytes above a true match may also be flagged, so callers check keys.
+     */
+    private static long matchByte(long word, int b) {
+        long x = word ^ (b * BYTES);
+        return (x - LOW_BITS) & ~x & HIGH_BITS;
+    }
+
+    /** Returns a word with the high bit set in each EMPTY byte of WORD. */
+    private static long matchEmpty(long word) {
+        // EMPTY is the only control byte with bit 7 set and bit 1 clear.
+        return word & (~word << 6) & HIGH_BITS;
+    }
+
+    /** Returns a word with the high bit set in each EMPTY or DELETED byte of WORD. */
+    private static long matchFree(long word) {
+        return word & HIGH_BITS;
+    }
+
+    /** Returns the slot of the lowest byte flagged in MATCH, a nonzero result of the match methods. */
+    private static int lowestSlot(long match, int base) {
+        return base + (Long.numberOfTrailingZeros(match) >>> 3);
+    }
+
+    private int controlAt(int slot) {
+        return (int) (control[slot >>> 3] >>> ((slot & 7) << 3)) & 0xFF;
+    }
+
+    private void setControl(int slot, int b) {
+        int shift = (slot & 7) << 3;
+        int w = slot >>> 3;
+        control[w] = (control[w] & ~(0xFFL << shift)) | ((long) b << shift);
+    }
+
+    /** Returns the slot holding KEY with hash HASH, or -1 if KEY is absent. */
+    private int findSlot(Object key, int hash) {
+        int fp = fingerprint(hash);
+        int group = hash & groupMask;
+        for (int step = 1; ; step++) {
+            // A group is exactly two words of control bytes.
+            int w = group << 1;
+            long low = control[w];
+            long high = control[w + 1];
+            for (long m = matchByte(low, fp); m != 0; m &= m - 1) {
+                int slot = lowestSlot(m, w << 3);
+                if (key.equals(keys[slot])) {
+                    return slot;
+                }
+            }
+            for (long m = matchByte(high, fp); m != 0; m &= m - 1) {
+                int slot = lowestSlot(m, (w + 1) << 3);
+                if (key.equals(keys[slot])) {
+                    return slot;
+                }
+            }
+            if ((matchEmpty(low) | matchEmpty(high)) != 0) {
+                return -1;
+            }
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /** Returns the first EMPTY or DELETED slot in the probe sequence of HASH. */
+    private int findFreeSlot(int hash) {
+        int group = hash & groupMask;
+        for (int step = 1; ; step++) {
+            int w = group << 1;
+            long m = matchFree(control[w]);
+            if (m != 0) {
+                return lowestSlot(m, w << 3);
+            }
+            m = matchFree(control[w + 1]);
+            if (m != 0) {
+                return lowestSlot(m, (w + 1) << 3);
+            }
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /** Fills a free slot with an entry whose key is known to be absent. */
+    private void insertAbsent(int hash, Object key, Object value) {
+        int slot = findFreeSlot(hash);
+        if (controlAt(slot) == EMPTY) {
+            growthLeft -= 1;
+        }
+        setControl(slot, fingerprint(hash));
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Rebuilds the table into NEWCAPACITY slots, which also drops every
+     * DELETED marker.
+     */
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldControl = control;
+        createTable(newCapacity);
+        for (int w = 0; w < oldControl.length; w++) {
+            // Full slots are the bytes with the high bit clear.
+            for (long m = ~oldControl[w] & HIGH_BITS; m != 0; m &= m - 1) {
+                int slot = lowestSlot(m, w << 3);
+                insertAbsent(hash(oldKeys[slot]), oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        createTable(keys.length);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findSlot(key, hash(key)) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = findSlot(key, hash(key));
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if (growthLeft == 0) {
+            // Mostly DELETED slots: rebuilding at the same size frees them.
+            boolean manyDeleted = size < keys.length * MAX_LOAD / 2;
+            resize(manyDeleted ? keys.length : keys.length * 2);
+        }
+        insertAbsent(hash, key, value);
+        size += 1;
+        modCount += 1;
+    }
+
+    /**
+     * Grows the table so that EXPECTEDSIZE entries fit without exceeding the
+     * maximum load factor.
+     */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.min(Math.ceil(expectedSize / MAX_LOAD), 1 << 30));
+        if (capacity > keys.length) {
+            resize(capacity);
+            modCount += 1;
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        int w = (slot / GROUP_SIZE) << 1;
+        if ((matchEmpty(control[w]) | matchEmpty(control[w + 1])) != 0) {
+            setControl(slot, EMPTY);
+            growthLeft += 1;
+        } else {
+            setControl(slot, DELETED);
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size -= 1;
+        modCount += 1;
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        V v = get(key);
+        if (value.equals(v)) {
+            return remove(key);
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Walks the slot array directly, skipping slots that are not full. */
+    private class KeyIterator implements Iterator<K> {
+        private int slot = nextFull(0);
+        private final int expectedModCount = modCount;
+
+        private int nextFull(int from) {
+            while (from < keys.length && (controlAt(from) & EMPTY) != 0) {
+                from += 1;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = (K) keys[slot];
+            slot = nextFull(slot + 1);
+            return key;
+        }
+    }
+}
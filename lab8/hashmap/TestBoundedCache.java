@@ -0,0 +1,179 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Tests of BoundedCache, its eviction policies and ConcurrentBoundedCache. */
+public class TestBoundedCache {
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new BoundedCache<>(1000000));
+        TestMyHashMap.sanityContainsKeyTest(new BoundedCache<>(1000000));
+        TestMyHashMap.sanityGetTest(new BoundedCache<>(1000000, new TinyLfuPolicy<>()));
+        TestMyHashMap.sanitySizeTest(new BoundedCache<>(1000000, new TinyLfuPolicy<>()));
+        TestMyHashMap.sanityPutTest(new ConcurrentBoundedCache<>(1000000));
+        TestMyHashMap.sanityKeySetTest(new ConcurrentBoundedCache<>(1000000));
+    }
+
+    @Test
+    public void testLruEviction() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("d", 4);
+        assertEquals(3, cache.size());
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    /** Returns how many of the keys 0 .. HOT - 1 survive a scan of one-off keys through CACHE. */
+    private static int hotKeysAfterScan(BoundedCache<Integer, Integer> cache, int hot) {
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < hot; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+        for (int i = hot; i < hot + 10000; i++) {
+            cache.get(i);
+            cache.put(i, i);
+        }
+        int survivors = 0;
+        for (int i = 0; i < hot; i++) {
+            if (cache.containsKey(i)) {
+                survivors += 1;
+            }
+        }
+        return survivors;
+    }
+
+    /** A scan flushes an LRU cache but not a TinyLFU one, whose frequency filter rejects one-off keys. */
+    @Test
+    public void testTinyLfuResistsScans() {
+        assertEquals(0, hotKeysAfterScan(new BoundedCache<>(100), 50));
+        assertTrue(hotKeysAfterScan(new BoundedCache<>(100, new TinyLfuPolicy<>()), 50) >= 45);
+    }
+
+    @Test
+    public void testWeights() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, new LruPolicy<>(),
+            (k, v) -> v.length(), 0, System::nanoTime);
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        assertEquals(8, cache.weight());
+        cache.put("c", "xxx");
+        assertEquals(7, cache.weight());
+        assertFalse(cache.containsKey("a"));
+        cache.put("b", "x");
+        assertEquals(4, cache.weight());
+        // Too heavy to cache at all, and it must not push out anything else.
+        cache.put("d", "xxxxxxxxxxx");
+        assertFalse(cache.containsKey("d"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    public void testExpiry() {
+        long[] now = {0};
+        BoundedCache<String, Integer> cache = new BoundedCache<>(100, new TinyLfuPolicy<>(),
+            (k, v) -> 1, 10, () -> now[0]);
+        cache.put("a", 1);
+        now[0] = 5;
+        cache.put("b", 2);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        now[0] = 10;
+        assertFalse(cache.containsKey("a"));
+        assertNull(cache.get("a"));
+        assertEquals(Integer.valueOf(2), cache.get("b"));
+        assertEquals(1, cache.expirationCount());
+        cache.put("b", 3);
+        now[0] = 19;
+        assertEquals(1, cache.size());
+        now[0] = 20;
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.expirationCount());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    /** Random operations on a small cache must keep it within its maximum and consistent with its counters. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(64, new TinyLfuPolicy<>());
+        int reads = 0;
+        for (int i = 0; i < 100000; i++) {
+            int key = (int) Math.abs(random.nextGaussian() * 100);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                Integer value = cache.get(key);
+                assertTrue(value == null || value == key);
+                reads += 1;
+            } else if (op < 9) {
+                cache.put(key, key);
+            } else {
+                cache.remove(key);
+            }
+            assertTrue(cache.size() <= 64);
+        }
+        assertEquals(reads, cache.hitCount() + cache.missCount());
+        assertEquals(cache.size(), cache.keySet().size());
+    }
+
+    @Test
+    public void testConcurrentCache() throws InterruptedException {
+        ConcurrentBoundedCache<Integer, Integer> cache =
+            new ConcurrentBoundedCache<>(1000, 8, TinyLfuPolicy::new);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 50000; i++) {
+                    int key = random.nextInt(5000);
+                    Integer value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        assertEquals(key, value.intValue());
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(cache.size() <= 1000);
+        assertEquals(200000, cache.hitCount() + cache.missCount());
+        // Two threads that miss the same key both put it, so misses can outnumber new entries.
+        assertTrue(cache.evictionCount() > 0);
+        assertTrue(cache.evictionCount() <= cache.missCount() - cache.size());
+    }
+
+    /* A maximum weight below the stripe count still leaves room in every stripe. */
+    @Test
+    public void testFewerStripesThanRequested() {
+        ConcurrentBoundedCache<Integer, Integer> cache =
+            new ConcurrentBoundedCache<>(1, 16, TinyLfuPolicy::new);
+        for (int key = 0; key < 100; key++) {
+            cache.put(key, key);
+            assertEquals(Integer.valueOf(key), cache.get(key));
+            assertEquals(1, cache.size());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Tests of the thread-safe hash table. */
+public class TestConcurrentMyHashMap {
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanityContainsKeyTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanityGetTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanitySizeTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanityPutTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanityKeySetTest(new ConcurrentMyHashMap<>());
+    }
+
+    @Test
+    public void functionalityTest() {
+        TestMyHashMap.functionalityTest(new ConcurrentMyHashMap<>(), new ConcurrentMyHashMap<>());
+    }
+
+    @Test
+    public void testRemove() {
+        ConcurrentMyHashMap<String, String> q = new ConcurrentMyHashMap<>();
+        q.put("a", "x");
+        q.put("b", "y");
+        assertNull(q.remove("a", "y"));
+        assertEquals("x", q.remove("a", "x"));
+        assertEquals("y", q.remove("b"));
+        assertNull(q.remove("b"));
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        ConcurrentMyHashMap<Integer, Integer> q = new ConcurrentMyHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            q.put(i, i);
+        }
+        Iterator<Integer> it = q.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(50, q.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, q.containsKey(i));
+        }
+    }
+
+    /**
+     * Writers insert and then remove disjoint key ranges through several
+     * resizes while readers check that every value they see is right.
+     */
+    @Test
+    public void testConcurrentWritersAndReaders() throws InterruptedException {
+        final int writers = 8;
+        final int perWriter = 20000;
+        ConcurrentMyHashMap<Integer, Integer> q = new ConcurrentMyHashMap<>(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int base = w * perWriter;
+            threads.add(new Thread(() -> {
+                for (int i = base; i < base + perWriter; i++) {
+                    q.put(i, -i);
+                }
+                for (int i = base; i < base + perWriter; i += 2) {
+                    if (q.remove(i) == null) {
+                        failed.set(true);
+                    }
+                }
+            }));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                int i = 0;
+                while (!done.get()) {
+                    Integer value = q.get(i);
+                    if (value != null && value != -i) {
+                        failed.set(true);
+                    }
+                    i = (i + 7) % (writers * perWriter);
+                }
+            }));
+        }
+        for (Thread t : readers) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        done.set(true);
+        for (Thread t : readers) {
+            t.join();
+        }
+
+        assertFalse(failed.get());
+        assertEquals(writers * perWriter / 2, q.size());
+        assertEquals(writers * perWriter / 2, q.keySet().size());
+        for (int i = 0; i < writers * perWriter; i++) {
+            assertEquals(i % 2 == 1 ? Integer.valueOf(-i) : null, q.get(i));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/** Tests of the memory-mapped String to long map. */
+public class TestMappedStringLongMap {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sanityTests() throws IOException {
+        MappedStringLongMap map = new MappedStringLongMap(new File(folder.getRoot(), "sanity"));
+        map.put("hi", 1L);
+        assertTrue(map.containsKey("hi"));
+        assertEquals(Long.valueOf(1), map.get("hi"));
+        assertNull(map.get("hello"));
+        assertEquals(-1, map.getOrDefault("hello", -1));
+        map.put("hi", 2L);
+        assertEquals(1, map.size());
+        assertEquals(Long.valueOf(2), map.remove("hi"));
+        assertEquals(0, map.size());
+        for (int i = 0; i < 455; i++) {
+            map.put("hi" + i, i);
+        }
+        assertEquals(455, map.size());
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey("hi0"));
+        map.close();
+    }
+
+    /** Contents survive closing and reopening, across several table growths. */
+    @Test
+    public void testPersistsAcrossReopen() throws IOException {
+        File file = new File(folder.getRoot(), "persist");
+        Random random = new Random(40);
+        HashMap<String, Long> expected = new HashMap<>();
+        MappedStringLongMap map = new MappedStringLongMap(file, 4);
+        for (int i = 0; i < 20000; i++) {
+            String key = "key-" + random.nextInt(8000) + "-\u00e9";
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                expected.put(key, (long) i << 20);
+                map.put(key, (long) i << 20);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        map.close();
+
+        MappedStringLongMap reopened = new MappedStringLongMap(file);
+        assertEquals(expected.size(), reopened.size());
+        for (String key : expected.keySet()) {
+            assertEquals(expected.get(key), reopened.get(key));
+        }
+        assertEquals(new HashSet<>(expected.keySet()), new HashSet<>(reopened.keySet()));
+        HashMap<String, Long> seen = new HashMap<>();
+        reopened.forEach(seen::put);
+        assertEquals(expected, seen);
+
+        reopened.put("after reopen", 7L);
+        reopened.close();
+        assertEquals(Long.valueOf(7), new MappedStringLongMap(file).get("after reopen"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignFile() throws IOException {
+        File file = folder.newFile("foreign");
+        Files.write(file.toPath(), new byte[128]);
+        new MappedStringLongMap(file);
+    }
+}
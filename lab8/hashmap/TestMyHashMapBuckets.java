@@ -3,6 +3,10 @@ package hashmap;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Tests by Brendan Hu, Spring 2015
  * Revised for 2016 by Josh Hug
@@ -36,6 +40,11 @@ public class TestMyHashMapBuckets {
         b = new MyHashMapPQBuckets<>();
         c = new MyHashMapPQBuckets<>();
         d = new MyHashMapPQBuckets<>();
+
+        a = new MyHashMapAdaptiveBuckets<>();
+        b = new MyHashMapAdaptiveBuckets<>();
+        c = new MyHashMapAdaptiveBuckets<>();
+        d = new MyHashMapAdaptiveBuckets<>();
     }
 
     //assumes put/size/containsKey/get work
@@ -46,6 +55,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityClearTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityClearTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityClearTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityClearTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -56,6 +66,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -66,6 +77,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityGetTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityGetTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityGetTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -76,6 +88,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanitySizeTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanitySizeTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanitySizeTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     //assumes get/containskey work
@@ -86,6 +99,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityPutTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityPutTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityPutTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     @Test
@@ -95,6 +109,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityKeySetTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityKeySetTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityKeySetTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // Test for general functionality and that the properties of Maps hold.
@@ -105,5 +120,145 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.functionalityTest(new MyHashMapTSBuckets<>(), new MyHashMapTSBuckets<>());
         TestMyHashMap.functionalityTest(new MyHashMapHSBuckets<>(), new MyHashMapHSBuckets<>());
         TestMyHashMap.functionalityTest(new MyHashMapPQBuckets<>(), new MyHashMapPQBuckets<>());
+        TestMyHashMap.functionalityTest(new MyHashMapAdaptiveBuckets<>(), new MyHashMapAdaptiveBuckets<>());
+    }
+
+    /** Returns N distinct Strings that all have the same hash code. */
+    static List<String> collidingStrings(int n) {
+        List<String> strings = new ArrayList<>();
+        strings.add("");
+        while (strings.size() < n) {
+            List<String> longer = new ArrayList<>();
+            for (String s : strings) {
+                longer.add(s + "Aa");
+                longer.add(s + "BB");
+            }
+            strings = longer;
+        }
+        return strings.subList(0, n);
+    }
+
+    // Adaptive buckets treeify under collisions and shrink back after removals.
+    @Test
+    public void adaptiveCollisionTest() {
+        List<String> keys = collidingStrings(1000);
+        MyHashMap<String, Integer> map = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+        assertFalse(map.containsKey("AaAaAaAaAaAaAaAaAaAaAa"));
+        for (int i = 0; i < keys.size() - 3; i++) {
+            assertEquals(Integer.valueOf(i), map.remove(keys.get(i)));
+        }
+        assertEquals(3, map.size());
+        assertEquals(3, map.keySet().size());
+        for (int i = keys.size() - 3; i < keys.size(); i++) {
+            assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+
+        // Keys of different classes with equal hash codes cannot share a tree.
+        MyHashMap<Object, Integer> mixed = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < 20; i++) {
+            mixed.put(keys.get(i), i);
+        }
+        mixed.put(keys.get(0).hashCode(), -1);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), mixed.get(keys.get(i)));
+        }
+        assertEquals(Integer.valueOf(-1), mixed.get(keys.get(0).hashCode()));
+    }
+
+    /** Removes every other key through the iterator of MAP, whose N keys
+     *  all land in one bucket. */
+    private static void collidingIteratorRemoveTest(MyHashMap<String, Integer> map, int n) {
+        List<String> keys = collidingStrings(n);
+        for (int i = 0; i < n; i++) {
+            map.put(keys.get(i), i);
+        }
+        int seen = 0;
+        Iterator<String> it = map.iterator();
+        while (it.hasNext()) {
+            if (map.get(it.next()) % 2 == 0) {
+                it.remove();
+            }
+            seen += 1;
+        }
+        assertEquals(n, seen);
+        assertEquals(n / 2, map.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i % 2 == 1, map.containsKey(keys.get(i)));
+        }
+    }
+
+    // The iterator walks buckets in place, so it removes through each bucket type.
+    @Test
+    public void collidingIteratorRemoveTest() {
+        for (int n : new int[]{6, 64}) {
+            collidingIteratorRemoveTest(new MyHashMap<>(), n);
+            collidingIteratorRemoveTest(new MyHashMapALBuckets<>(), n);
+            collidingIteratorRemoveTest(new MyHashMapLLBuckets<>(), n);
+            collidingIteratorRemoveTest(new MyHashMapTSBuckets<>(), n);
+            collidingIteratorRemoveTest(new MyHashMapHSBuckets<>(), n);
+            collidingIteratorRemoveTest(new MyHashMapPQBuckets<>(), n);
+            collidingIteratorRemoveTest(new MyHashMapAdaptiveBuckets<>(), n);
+        }
+    }
+
+    /** A key ordered only by its rank, which keys of different names may
+     *  share. Every key has the same hash code. */
+    private static class RankedKey implements Comparable<RankedKey> {
+        final String name;
+        final int rank;
+
+        RankedKey(String name, int rank) {
+            this.name = name;
+            this.rank = rank;
+        }
+
+        @Override
+        public int compareTo(RankedKey other) {
+            return Integer.compare(rank, other.rank);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RankedKey && ((RankedKey) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    // Tree buckets find keys by equals, not by compareTo alone.
+    @Test
+    public void adaptiveCompareToInconsistentWithEqualsTest() {
+        MyHashMap<RankedKey, Integer> map = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < 20; i++) {
+            map.put(new RankedKey("k" + i, i), i);
+        }
+        assertNull(map.get(new RankedKey("other", 5)));
+        assertFalse(map.containsKey(new RankedKey("other", 5)));
+        map.put(new RankedKey("other", 5), -1);
+        assertEquals(21, map.size());
+        assertEquals(Integer.valueOf(5), map.get(new RankedKey("k5", 5)));
+        assertEquals(Integer.valueOf(-1), map.get(new RankedKey("other", 5)));
+        assertEquals(Integer.valueOf(5), map.remove(new RankedKey("k5", 5)));
+        assertEquals(Integer.valueOf(-1), map.get(new RankedKey("other", 5)));
+
+        // Ties among the first keys keep the bucket from becoming a tree at all.
+        MyHashMap<RankedKey, Integer> ties = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < 20; i++) {
+            ties.put(new RankedKey("k" + i, i / 2), i);
+        }
+        assertEquals(20, ties.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), ties.get(new RankedKey("k" + i, i / 2)));
+        }
     }
 }
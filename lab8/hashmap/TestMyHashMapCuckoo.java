@@ -0,0 +1,121 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of the cuckoo hash table. */
+public class TestMyHashMapCuckoo {
+
+    /** A key whose hash code is chosen by the test, to force collisions. */
+    private static class CollidingKey {
+        private final int id;
+        private final int hash;
+
+        CollidingKey(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new MyHashMapCuckoo<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapCuckoo<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapCuckoo<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapCuckoo<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapCuckoo<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapCuckoo<>());
+    }
+
+    @Test
+    public void functionalityTest() {
+        TestMyHashMap.functionalityTest(new MyHashMapCuckoo<>(), new MyHashMapCuckoo<>());
+    }
+
+    /**
+     * Keys with equal hash codes share both buckets, so all but the first
+     * eight end up in the stash. They must stay reachable, and removing
+     * table entries must let stashed entries move back in.
+     */
+    @Test
+    public void testStash() {
+        MyHashMapCuckoo<CollidingKey, Integer> q = new MyHashMapCuckoo<>(1024);
+        CollidingKey[] keys = new CollidingKey[20];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CollidingKey(i, 42);
+            q.put(keys[i], i);
+        }
+        assertEquals(20, q.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(Integer.valueOf(i), q.get(keys[i]));
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            assertEquals(Integer.valueOf(i), q.remove(keys[i]));
+        }
+        assertEquals(10, q.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), q.get(keys[i]));
+        }
+        int count = 0;
+        for (CollidingKey key : q) {
+            assertEquals(1, key.id % 2);
+            count += 1;
+        }
+        assertEquals(10, count);
+    }
+
+    /** A nearly full table must still place every key in one of its two buckets or the stash. */
+    @Test
+    public void testHighLoad() {
+        MyHashMapCuckoo<Integer, Integer> q = new MyHashMapCuckoo<>(1 << 16, 0.95);
+        for (int i = 0; i < 60000; i++) {
+            q.put(i * 7919, i);
+        }
+        assertEquals(60000, q.size());
+        for (int i = 0; i < 60000; i++) {
+            assertEquals(Integer.valueOf(i), q.get(i * 7919));
+        }
+        assertNull(q.get(-1));
+    }
+
+    /** Random puts and removes over a small key space, checked against java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyHashMapCuckoo<CollidingKey, Integer> q = new MyHashMapCuckoo<>(2);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(500);
+            CollidingKey key = new CollidingKey(id, id % 37);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), q.remove(key));
+            } else {
+                expected.put(id, i);
+                q.put(key, i);
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        for (int id = 0; id < 500; id++) {
+            assertEquals(expected.get(id), q.get(new CollidingKey(id, id % 37)));
+        }
+        int count = 0;
+        for (CollidingKey key : q) {
+            assertTrue(expected.containsKey(key.id));
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+    }
+}
@@ -3,6 +3,14 @@ package hashmap;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
 /** Tests of optional parts of lab 8. */
 public class TestMyHashMapExtra {
 
@@ -49,4 +57,171 @@ public class TestMyHashMapExtra {
         assertTrue(q.containsKey("b"));
         assertTrue(q.containsKey("f"));
     }
+
+    /** Entries survive many resizes starting from an odd initial size. */
+    @Test
+    public void testResizeKeepsEntries() {
+        MyHashMap<Integer, Integer> q = new MyHashMap<>(3, 0.5);
+        for (int i = 0; i < 10000; i++) {
+            q.put(i, -i);
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            assertEquals(Integer.valueOf(-i), q.remove(i));
+        }
+        assertEquals(5000, q.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 2 == 1, q.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testIncrementalResizeSanity() {
+        TestMyHashMap.sanityClearTest(new MyHashMap<>(16, 0.75, true));
+        TestMyHashMap.sanityKeySetTest(new MyHashMap<>(16, 0.75, true));
+        TestMyHashMap.functionalityTest(new MyHashMap<>(16, 0.75, true), new MyHashMap<>(16, 0.75, true));
+    }
+
+    /** Operations interleaved with incremental resizes, checked against java.util.HashMap. */
+    @Test
+    public void testIncrementalResize() {
+        Random random = new Random(8);
+        MyHashMap<Integer, Integer> q = new MyHashMap<>(1, 0.75, true);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(20000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.remove(key), q.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), q.get(key));
+                    break;
+                default:
+                    expected.put(key, i);
+                    q.put(key, i);
+                    break;
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        assertEquals(expected.keySet(), q.keySet());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), q.get(key));
+        }
+    }
+
+    /** Views reflect later changes, and removing through them updates the map. */
+    public static void liveViewsTest(MyHashMap<Integer, Integer> q) {
+        Set<Integer> keys = q.keySet();
+        for (int i = 0; i < 100; i++) {
+            q.put(i, i * i);
+        }
+        assertEquals(100, keys.size());
+        assertTrue(keys.contains(99));
+        assertEquals(100, q.values().size());
+        assertTrue(q.values().contains(81));
+
+        for (Map.Entry<Integer, Integer> entry : q.entrySet()) {
+            entry.setValue(-entry.getKey());
+        }
+        assertEquals(Integer.valueOf(-7), q.get(7));
+
+        Iterator<Integer> it = keys.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(50, q.size());
+        assertTrue(keys.remove(1));
+        assertFalse(q.containsKey(1));
+
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        q.forEach(seen::put);
+        assertEquals(49, seen.size());
+        for (Map.Entry<Integer, Integer> entry : seen.entrySet()) {
+            assertEquals(-entry.getKey(), entry.getValue().intValue());
+        }
+    }
+
+    @Test
+    public void testLiveViews() {
+        liveViewsTest(new MyHashMap<>());
+        liveViewsTest(new MyHashMap<>(1, 0.75, true));
+        liveViewsTest(new MyHashMapALBuckets<>());
+        liveViewsTest(new MyHashMapLLBuckets<>());
+        liveViewsTest(new MyHashMapTSBuckets<>());
+        liveViewsTest(new MyHashMapHSBuckets<>());
+        liveViewsTest(new MyHashMapPQBuckets<>());
+        liveViewsTest(new MyHashMapAdaptiveBuckets<>());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsFast() {
+        MyHashMap<String, Integer> q = new MyHashMap<>();
+        q.put("a", 1);
+        q.put("b", 2);
+        for (String key : q) {
+            q.put(key + key, 3);
+        }
+    }
+
+    /**
+     * Reads and value updates during iteration are not structural changes,
+     * and the buckets they move are neither skipped nor seen twice. With
+     * 769 keys a resize has just started, and with 1000 it is mostly done.
+     */
+    @Test
+    public void testReadsDuringIncrementalResize() {
+        for (int n : new int[]{769, 1000}) {
+            MyHashMap<Integer, Integer> q = new MyHashMap<>(1, 0.75, true);
+            for (int i = 0; i < n; i++) {
+                q.put(i, i);
+            }
+            int count = 0;
+            for (Integer key : q) {
+                assertTrue(q.containsKey(key));
+                q.put(key, q.get(key) + 1);
+                count += 1;
+            }
+            assertEquals(n, count);
+            for (int i = 0; i < n; i++) {
+                assertEquals(Integer.valueOf(i + 1), q.get(i));
+            }
+
+            q = new MyHashMap<>(1, 0.75, true);
+            for (int i = 0; i < n; i++) {
+                q.put(i, i);
+            }
+            MyHashMap<Integer, Integer> map = q;
+            HashMap<Integer, Integer> seen = new HashMap<>();
+            q.forEach((key, value) -> assertNull(seen.put(key, map.get(key))));
+            assertEquals(n, seen.size());
+        }
+    }
+
+    /** Bulk operations, checked on a map pre-sized with ensureCapacity. */
+    public static void bulkOperationsTest(MyHashMap<Integer, Integer> q) {
+        q.put(1, -1);
+        HashMap<Integer, Integer> batch = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.put(i, i);
+        }
+        q.ensureCapacity(6000);
+        q.putAll(batch);
+        assertEquals(5000, q.size());
+        assertEquals(Integer.valueOf(1), q.get(1));
+
+        Map<Integer, Integer> found = q.getAll(List.of(9, 5000, 4));
+        assertEquals(List.of(9, 4), List.copyOf(found.keySet()));
+        assertEquals(2, q.removeAll(List.of(9, 4, 5000)));
+        assertEquals(4998, q.size());
+        assertFalse(q.containsKey(9));
+    }
+
+    @Test
+    public void testBulkOperations() {
+        bulkOperationsTest(new MyHashMap<>());
+        bulkOperationsTest(new MyHashMap<>(1, 0.75, true));
+        bulkOperationsTest(new MyHashMapAdaptiveBuckets<>());
+    }
 }
@@ -0,0 +1,137 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of the hash array mapped trie and its snapshots. */
+public class TestMyHashMapHAMT {
+
+    /** A key whose hash code is chosen by the test, to force collisions. */
+    private static class CollidingKey {
+        private final int id;
+        private final int hash;
+
+        CollidingKey(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new MyHashMapHAMT<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapHAMT<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapHAMT<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapHAMT<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapHAMT<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapHAMT<>());
+    }
+
+    @Test
+    public void functionalityTest() {
+        TestMyHashMap.functionalityTest(new MyHashMapHAMT<>(), new MyHashMapHAMT<>());
+    }
+
+    /** Changes to the map after a snapshot, and to the snapshot itself, must not leak across. */
+    @Test
+    public void testSnapshotIsolation() {
+        MyHashMapHAMT<Integer, Integer> map = new MyHashMapHAMT<>();
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, i);
+        }
+        MyHashMapHAMT<Integer, Integer> snapshot = map.snapshot();
+        for (int i = 0; i < 10000; i += 2) {
+            map.remove(i);
+        }
+        for (int i = 1; i < 10000; i += 2) {
+            map.put(i, -i);
+        }
+        map.put(20000, 1);
+        snapshot.put(30000, 2);
+
+        assertEquals(5001, map.size());
+        assertEquals(10001, snapshot.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(Integer.valueOf(i), snapshot.get(i));
+            assertEquals(i % 2 == 0 ? null : Integer.valueOf(-i), map.get(i));
+        }
+        assertFalse(snapshot.containsKey(20000));
+        assertFalse(map.containsKey(30000));
+
+        int count = 0;
+        for (Integer key : snapshot) {
+            count += 1;
+        }
+        assertEquals(10001, count);
+    }
+
+    /** Keys with equal hash codes must survive being pushed down to, and removed from, collision nodes. */
+    @Test
+    public void testFullHashCollisions() {
+        MyHashMapHAMT<CollidingKey, Integer> map = new MyHashMapHAMT<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(new CollidingKey(i, 42), i);
+        }
+        map.put(new CollidingKey(100, 43), 100);
+        MyHashMapHAMT<CollidingKey, Integer> snapshot = map.snapshot();
+        for (int i = 0; i < 9; i++) {
+            assertEquals(Integer.valueOf(i), map.remove(new CollidingKey(i, 42)));
+        }
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(9), map.get(new CollidingKey(9, 42)));
+        assertEquals(Integer.valueOf(100), map.get(new CollidingKey(100, 43)));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), snapshot.get(new CollidingKey(i, 42)));
+        }
+        assertEquals(11, snapshot.size());
+    }
+
+    /** Random puts, removes and snapshots, checked against java.util.HashMap copies. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyHashMapHAMT<CollidingKey, Integer> q = new MyHashMapHAMT<>();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        MyHashMapHAMT<CollidingKey, Integer> snapshot = q.snapshot();
+        HashMap<Integer, Integer> expectedSnapshot = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(500);
+            CollidingKey key = new CollidingKey(id, id % 37 == 0 ? 5 : id * 31);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), q.remove(key));
+            } else {
+                expected.put(id, i);
+                q.put(key, i);
+            }
+            assertEquals(expected.size(), q.size());
+            if (i % 1000 == 0) {
+                snapshot = q.snapshot();
+                expectedSnapshot = new HashMap<>(expected);
+            }
+        }
+        for (int id = 0; id < 500; id++) {
+            CollidingKey key = new CollidingKey(id, id % 37 == 0 ? 5 : id * 31);
+            assertEquals(expected.get(id), q.get(key));
+            assertEquals(expectedSnapshot.get(id), snapshot.get(key));
+        }
+        int count = 0;
+        for (CollidingKey key : q) {
+            assertTrue(expected.containsKey(key.id));
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+    }
+}
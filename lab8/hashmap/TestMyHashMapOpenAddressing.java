@@ -0,0 +1,94 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of the open-addressing hash table. */
+public class TestMyHashMapOpenAddressing {
+
+    /** A key whose hash code is chosen by the test, to force collisions. */
+    private static class CollidingKey {
+        private final int id;
+        private final int hash;
+
+        CollidingKey(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new MyHashMapOpenAddressing<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapOpenAddressing<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapOpenAddressing<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapOpenAddressing<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapOpenAddressing<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapOpenAddressing<>());
+    }
+
+    @Test
+    public void functionalityTest() {
+        TestMyHashMap.functionalityTest(new MyHashMapOpenAddressing<>(), new MyHashMapOpenAddressing<>());
+    }
+
+    /** Removing from the middle of a probe run must keep later entries reachable. */
+    @Test
+    public void testRemoveShiftsProbeRun() {
+        MyHashMapOpenAddressing<CollidingKey, Integer> q = new MyHashMapOpenAddressing<>(16);
+        CollidingKey[] keys = new CollidingKey[6];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CollidingKey(i, i < 4 ? 3 : 4);
+            q.put(keys[i], i);
+        }
+        assertEquals(Integer.valueOf(1), q.remove(keys[1]));
+        assertFalse(q.containsKey(keys[1]));
+        for (int i = 0; i < keys.length; i++) {
+            if (i != 1) {
+                assertEquals(Integer.valueOf(i), q.get(keys[i]));
+            }
+        }
+        assertEquals(5, q.size());
+    }
+
+    /** Random puts and removes over a small key space, checked against java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyHashMapOpenAddressing<CollidingKey, Integer> q = new MyHashMapOpenAddressing<>(2);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(500);
+            CollidingKey key = new CollidingKey(id, id % 37);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), q.remove(key));
+            } else {
+                expected.put(id, i);
+                q.put(key, i);
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        for (int id = 0; id < 500; id++) {
+            assertEquals(expected.get(id), q.get(new CollidingKey(id, id % 37)));
+        }
+        int count = 0;
+        for (CollidingKey key : q) {
+            assertTrue(expected.containsKey(key.id));
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+    }
+}
@@ -0,0 +1,103 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of the Swiss table. */
+public class TestMyHashMapSwiss {
+
+    /** A key whose hash code is chosen by the test, to force collisions. */
+    private static class CollidingKey {
+        private final int id;
+        private final int hash;
+
+        CollidingKey(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new MyHashMapSwiss<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapSwiss<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapSwiss<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapSwiss<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapSwiss<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapSwiss<>());
+    }
+
+    @Test
+    public void functionalityTest() {
+        TestMyHashMap.functionalityTest(new MyHashMapSwiss<>(), new MyHashMapSwiss<>());
+    }
+
+    /**
+     * Keys with equal hash codes share a fingerprint and a probe sequence,
+     * so they fill whole groups. Removing some must leave the rest reachable
+     * past the DELETED slots, and new keys must reuse those slots.
+     */
+    @Test
+    public void testDeletedSlots() {
+        MyHashMapSwiss<CollidingKey, Integer> q = new MyHashMapSwiss<>(64);
+        for (int i = 0; i < 40; i++) {
+            q.put(new CollidingKey(i, 7), i);
+        }
+        for (int i = 0; i < 40; i += 3) {
+            assertEquals(Integer.valueOf(i), q.remove(new CollidingKey(i, 7)));
+        }
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % 3 == 0 ? null : Integer.valueOf(i), q.get(new CollidingKey(i, 7)));
+        }
+        // Churning through many more keys than slots forces rebuilds that drop DELETED markers.
+        for (int i = 100; i < 100000; i++) {
+            q.put(new CollidingKey(i, i), i);
+            q.remove(new CollidingKey(i, i));
+        }
+        assertEquals(26, q.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % 3 == 0 ? null : Integer.valueOf(i), q.get(new CollidingKey(i, 7)));
+        }
+    }
+
+    /** Random puts and removes over a small key space, checked against java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyHashMapSwiss<CollidingKey, Integer> q = new MyHashMapSwiss<>(2);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(500);
+            CollidingKey key = new CollidingKey(id, id % 37);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), q.remove(key));
+            } else {
+                expected.put(id, i);
+                q.put(key, i);
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        for (int id = 0; id < 500; id++) {
+            assertEquals(expected.get(id), q.get(new CollidingKey(id, id % 37)));
+        }
+        int count = 0;
+        for (CollidingKey key : q) {
+            assertTrue(expected.containsKey(key.id));
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+    }
+}
@@ -0,0 +1,85 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of IntIntHashMap and LongObjectHashMap. */
+public class TestPrimitiveHashMaps {
+
+    @Test
+    public void testZeroKey() {
+        IntIntHashMap ints = new IntIntHashMap();
+        assertFalse(ints.containsKey(0));
+        assertEquals(-1, ints.getOrDefault(0, -1));
+        ints.put(0, 0);
+        assertTrue(ints.containsKey(0));
+        assertEquals(0, ints.getOrDefault(0, -1));
+        assertEquals(1, ints.size());
+        assertTrue(ints.remove(0));
+        assertFalse(ints.remove(0));
+        assertEquals(0, ints.size());
+
+        LongObjectHashMap<String> longs = new LongObjectHashMap<>();
+        longs.put(0L, "zero");
+        assertEquals("zero", longs.get(0L));
+        assertEquals("zero", longs.remove(0L));
+        assertNull(longs.get(0L));
+        assertEquals(0, longs.size());
+    }
+
+    /** Random puts and removes, checked against java.util.HashMap. */
+    @Test
+    public void randomizedIntIntTest() {
+        Random random = new Random(37);
+        IntIntHashMap q = new IntIntHashMap(2);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, q.remove(key));
+            } else {
+                expected.put(key, i);
+                q.put(key, i);
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        for (int key = -1000; key < 1000; key++) {
+            assertEquals(expected.getOrDefault(key, -1).intValue(), q.getOrDefault(key, -1));
+        }
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        q.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+
+    /** Random puts and removes with keys spread over the whole long range. */
+    @Test
+    public void randomizedLongObjectTest() {
+        Random random = new Random(64);
+        long[] keySpace = new long[1500];
+        for (int i = 0; i < keySpace.length; i++) {
+            keySpace[i] = i < 500 ? i : random.nextLong();
+        }
+        LongObjectHashMap<Integer> q = new LongObjectHashMap<>(2);
+        HashMap<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            long key = keySpace[random.nextInt(keySpace.length)];
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), q.remove(key));
+            } else {
+                expected.put(key, i);
+                q.put(key, i);
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        for (long key : keySpace) {
+            assertEquals(expected.get(key), q.get(key));
+            assertEquals(expected.containsKey(key), q.containsKey(key));
+        }
+        HashMap<Long, Integer> seen = new HashMap<>();
+        q.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+}
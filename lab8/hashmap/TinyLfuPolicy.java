@@ -0,0 +1,119 @@
+package hashmap;
+
+/**
+ *  Window TinyLFU eviction. New entries enter a small LRU window that
+ *  takes WINDOW_PERCENT of the weight. Entries that fall out of the window
+ *  join the probation segment of a segmented LRU. A read of a probation
+ *  entry promotes it to the protected segment, which holds at most
+ *  PROTECTED_PERCENT of the space outside the window. When the cache must
+ *  shrink, the newest and oldest probation entries are compared by how
+ *  often their keys were seen recently, as estimated by a FrequencySketch
+ *  that also counts misses, and the less popular one goes.
+ *
+ *  The window keeps bursts of new keys from being rejected before they can
+ *  build up a count, while the frequency filter keeps one-off keys, such
+ *  as those of a scan, from flushing out the keys that are read often.
+ *  @author Hao Chen
+ */
+public class TinyLfuPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    private static final double WINDOW_PERCENT = 0.01;
+
+    private static final double PROTECTED_PERCENT = 0.8;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final EntryList<K, V> window = new EntryList<>();
+    private final EntryList<K, V> probation = new EntryList<>();
+    private final EntryList<K, V> protectedSegment = new EntryList<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    private long windowMaximum;
+    private long protectedMaximum;
+
+    @Override
+    public void setMaximumWeight(long maximumWeight) {
+        windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENT));
+        protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENT);
+        // Size the sketch once, for as many entries as the cache can hold if
+        // each weighs at least 1. Growing it later would forget every count.
+        sketch.ensureCapacity((int) Math.min(maximumWeight, Integer.MAX_VALUE));
+    }
+
+    private EntryList<K, V> listOf(BoundedCache.Entry<K, V> entry) {
+        switch (entry.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedSegment;
+        }
+    }
+
+    private void moveTo(BoundedCache.Entry<K, V> entry, EntryList<K, V> list, int queue) {
+        listOf(entry).remove(entry);
+        entry.queue = queue;
+        list.addFirst(entry);
+    }
+
+    @Override
+    public void onAdd(BoundedCache.Entry<K, V> entry) {
+        sketch.increment(entry.key.hashCode());
+        entry.queue = WINDOW;
+        window.addFirst(entry);
+        while (window.weight > windowMaximum && window.size() > 1) {
+            moveTo(window.last(), probation, PROBATION);
+        }
+    }
+
+    @Override
+    public void onAccess(BoundedCache.Entry<K, V> entry) {
+        sketch.increment(entry.key.hashCode());
+        if (entry.queue == PROBATION) {
+            moveTo(entry, protectedSegment, PROTECTED);
+            while (protectedSegment.weight > protectedMaximum && protectedSegment.size() > 1) {
+                moveTo(protectedSegment.last(), probation, PROBATION);
+            }
+        } else {
+            listOf(entry).moveToFront(entry);
+        }
+    }
+
+    @Override
+    public void onUpdate(BoundedCache.Entry<K, V> entry, long oldWeight) {
+        listOf(entry).weight += entry.weight - oldWeight;
+        onAccess(entry);
+    }
+
+    @Override
+    public void onRemove(BoundedCache.Entry<K, V> entry) {
+        listOf(entry).remove(entry);
+    }
+
+    /** Counts misses too, so that a key which keeps being asked for can earn admission. */
+    @Override
+    public void onMiss(K key) {
+        sketch.increment(key.hashCode());
+    }
+
+    @Override
+    public BoundedCache.Entry<K, V> victim() {
+        if (probation.size() >= 2) {
+            BoundedCache.Entry<K, V> candidate = probation.first();
+            BoundedCache.Entry<K, V> victim = probation.last();
+            int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+            int victimFrequency = sketch.frequency(victim.key.hashCode());
+            return candidateFrequency > victimFrequency ? victim : candidate;
+        }
+        if (probation.size() == 1) {
+            return probation.first();
+        }
+        if (protectedSegment.size() > 0) {
+            return protectedSegment.last();
+        }
+        return window.last();
+    }
+}
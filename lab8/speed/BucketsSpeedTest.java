@@ -3,7 +3,13 @@ package speed;
 import edu.princeton.cs.algs4.Stopwatch;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.function.Function;
 
 import hashmap.Map61B;
 import hashmap.MyHashMapALBuckets;
@@ -11,6 +17,10 @@ import hashmap.MyHashMapLLBuckets;
 import hashmap.MyHashMapTSBuckets;
 import hashmap.MyHashMapHSBuckets;
 import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapOpenAddressing;
+import hashmap.MyHashMapAdaptiveBuckets;
+import hashmap.MyHashMapCuckoo;
+import hashmap.MyHashMapSwiss;
 
 /** Performs a timing test on three different set implementations.
  *  @author Neil Kulkarni adapted from Josh Hug, Brendan Hu
@@ -42,6 +52,10 @@ public class BucketsSpeedTest {
             timeRandomMap61B(new MyHashMapTSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapHSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapPQBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapAdaptiveBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapOpenAddressing<>(), N, L);
+            timeRandomMap61B(new MyHashMapCuckoo<>(), N, L);
+            timeRandomMap61B(new MyHashMapSwiss<>(), N, L);
 
             System.out.print("\nWould you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
@@ -63,15 +77,40 @@ public class BucketsSpeedTest {
         return sw.elapsedTime();
     }
 
+    /**
+     * Looks up each of KEYS once, in random order, through GET and returns
+     * the p50 and p99 latency of a single lookup in nanoseconds.
+     */
+    public static long[] lookupLatency(Function<String, ?> get, Iterable<String> keys) {
+        List<String> order = new ArrayList<>();
+        for (String key : keys) {
+            order.add(key);
+        }
+        Collections.shuffle(order, new Random(61));
+        long[] latencies = new long[order.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            String key = order.get(i);
+            long start = System.nanoTime();
+            get.apply(key);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return new long[] {latencies[(latencies.length - 1) / 2],
+            latencies[(int) Math.ceil(0.99 * latencies.length) - 1]};
+    }
+
     /**
      * Attempts to insert N random strings of length L into map,
-     * Prints time of the N insert calls, otherwise
+     * Prints time of the N insert calls and the latency of looking
+     * each key up again, otherwise
      * Prints a nice message about the error
      */
     public static void timeRandomMap61B(Map61B<String, Integer> map, int N, int L) {
         try {
             double mapTime = insertRandom(map, N, L);
-            System.out.printf(map.getClass() + ": %.2f sec\n", mapTime);
+            long[] latency = lookupLatency(map::get, map);
+            System.out.printf(map.getClass() + ": %.2f sec, get p50 %d ns, p99 %d ns\n",
+                    mapTime, latency[0], latency[1]);
         } catch (StackOverflowError e) {
             printInfoOnStackOverflow(N, L);
         } catch (RuntimeException e) {
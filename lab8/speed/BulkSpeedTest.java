@@ -0,0 +1,77 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Scanner;
+
+import hashmap.MyHashMap;
+
+/** Compares MyHashMap's bulk operations with the equivalent loops of
+ *  single-key calls.
+ *  @author Hao Chen
+ */
+public class BulkSpeedTest {
+    /**
+     * Requests user input and times put, get and remove of N random
+     * strings of length L, one at a time and in bulk. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program puts, gets and removes N random Strings\n"
+                + " of length L in MyHashMap, first one at a time, then with\n"
+                + " putAll, getAll and removeAll.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to use: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            HashMap<String, Integer> batch = new HashMap<>();
+            for (int i = 0; i < N; i++) {
+                batch.put(StringUtils.randomString(L), i);
+            }
+            List<String> keys = Arrays.asList(batch.keySet().toArray(new String[0]));
+
+            MyHashMap<String, Integer> looped = new MyHashMap<>();
+            Stopwatch sw = new Stopwatch();
+            for (String key : keys) {
+                looped.put(key, batch.get(key));
+            }
+            double put = sw.elapsedTime();
+            sw = new Stopwatch();
+            for (String key : keys) {
+                looped.get(key);
+            }
+            double get = sw.elapsedTime();
+            sw = new Stopwatch();
+            for (String key : keys) {
+                looped.remove(key);
+            }
+            double remove = sw.elapsedTime();
+            System.out.printf("Single-key loops: put %.2f sec, get %.2f sec, remove %.2f sec\n", put, get, remove);
+
+            MyHashMap<String, Integer> bulk = new MyHashMap<>();
+            sw = new Stopwatch();
+            bulk.putAll(batch);
+            put = sw.elapsedTime();
+            sw = new Stopwatch();
+            bulk.getAll(keys);
+            get = sw.elapsedTime();
+            sw = new Stopwatch();
+            bulk.removeAll(keys);
+            remove = sw.elapsedTime();
+            System.out.printf("Bulk operations:  putAll %.2f sec, getAll %.2f sec, removeAll %.2f sec\n",
+                    put, get, remove);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+}
@@ -0,0 +1,106 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+import hashmap.BoundedCache;
+import hashmap.EvictionPolicy;
+import hashmap.LruPolicy;
+import hashmap.TinyLfuPolicy;
+
+/** Replays a skewed request stream against bounded caches with each
+ *  eviction policy and reports their hit rates and throughput.
+ *  @author Hao Chen
+ */
+public class CacheHitRateTest {
+    /** Distinct keys in the request stream, per cache slot. */
+    private static final int KEYS_PER_SLOT = 100;
+
+    /**
+     * Requests user input and replays a Zipf-distributed stream of N
+     * requests, with and without periodic scans, against each policy.
+     * ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program reads keys drawn from a Zipf distribution through\n"
+                + " a cache of C entries, putting each key that misses, and reports\n"
+                + " the hit rate of each eviction policy. The second workload also\n"
+                + " scans through C * 10 one-off keys after every C * 100 requests.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # entries the cache holds: ");
+            int C = InsertRandomSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter # requests to make: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            int[] zipf = zipfRequests(C * KEYS_PER_SLOT, N, 61);
+            int[] scans = withScans(zipf, C);
+            System.out.println("\nZipf:");
+            replay("LRU", new LruPolicy<>(), C, zipf);
+            replay("W-TinyLFU", new TinyLfuPolicy<>(), C, zipf);
+            System.out.println("\nZipf with scans:");
+            replay("LRU", new LruPolicy<>(), C, scans);
+            replay("W-TinyLFU", new TinyLfuPolicy<>(), C, scans);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns N keys below KEYS drawn from a Zipf distribution with exponent 1. */
+    public static int[] zipfRequests(int keys, int N, long seed) {
+        double[] cdf = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] requests = new int[N];
+        for (int i = 0; i < N; i++) {
+            int slot = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            requests[i] = slot >= 0 ? slot : -slot - 1;
+        }
+        return requests;
+    }
+
+    /** Returns REQUESTS with a scan of C * 10 never-repeated keys after every C * 100 requests. */
+    private static int[] withScans(int[] requests, int C) {
+        int period = C * 100;
+        int scan = C * 10;
+        int[] result = new int[requests.length + requests.length / period * scan];
+        int next = -1;
+        int j = 0;
+        for (int i = 0; i < requests.length; i++) {
+            result[j++] = requests[i];
+            if ((i + 1) % period == 0) {
+                for (int s = 0; s < scan; s++) {
+                    result[j++] = next--;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Replays REQUESTS through a cache of C entries evicting with POLICY and prints its statistics. */
+    public static void replay(String name, EvictionPolicy<Integer, Integer> policy, int C, int[] requests) {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(C, policy);
+        Stopwatch sw = new Stopwatch();
+        for (int key : requests) {
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+        double time = sw.elapsedTime();
+        System.out.printf("%-10s hit rate %5.1f%%, %d evictions, %.0f requests/sec\n",
+                name, 100 * cache.hitRate(), cache.evictionCount(), requests.length / time);
+    }
+}
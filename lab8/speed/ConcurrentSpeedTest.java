@@ -0,0 +1,132 @@
+package speed;
+
+import java.io.IOException;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import hashmap.ConcurrentMyHashMap;
+
+/** Measures the throughput of concurrent inserts into an empty map, which
+ *  has to resize as it grows, and of a read-mostly workload on the filled
+ *  map, for ConcurrentMyHashMap and Java's ConcurrentHashMap at 1 to 64
+ *  threads.
+ *  @author Hao Chen
+ */
+public class ConcurrentSpeedTest {
+    /** Thread counts to test. */
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    /** Percent of operations that are puts; the rest are gets. */
+    private static final int PUT_PERCENT = 10;
+
+    /** The operations under test, so both maps run the same loop. */
+    private interface Ops {
+        Integer get(Integer key);
+        void put(Integer key, Integer value);
+    }
+
+    /**
+     * Requests user input and runs the workload for every thread count.
+     * ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program has T threads insert K Integer keys between them\n"
+                + " into each empty map, then do N operations each (" + PUT_PERCENT + "% puts,\n"
+                + " the rest gets) on random keys, for T from 1 to 64.\n");
+        System.out.print("What would you like K to be?: ");
+        int K = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # operations per thread: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            System.out.printf("%8s %45s %45s\n", "threads", "ConcurrentMyHashMap", "ConcurrentHashMap");
+            for (int threads : THREADS) {
+                ConcurrentMyHashMap<Integer, Integer> mine = new ConcurrentMyHashMap<>();
+                ConcurrentHashMap<Integer, Integer> java = new ConcurrentHashMap<>();
+                Ops mineOps = new Ops() {
+                    public Integer get(Integer key) {
+                        return mine.get(key);
+                    }
+                    public void put(Integer key, Integer value) {
+                        mine.put(key, value);
+                    }
+                };
+                Ops javaOps = new Ops() {
+                    public Integer get(Integer key) {
+                        return java.get(key);
+                    }
+                    public void put(Integer key, Integer value) {
+                        java.put(key, value);
+                    }
+                };
+                double mineInsertRate = timeInserts(mineOps, threads, K);
+                double mineRate = timeOps(mineOps, threads, K, N);
+                double javaInsertRate = timeInserts(javaOps, threads, K);
+                double javaRate = timeOps(javaOps, threads, K, N);
+                System.out.printf("%8d %8.2f Mops/s inserts %8.2f Mops/s mixed %8.2f Mops/s inserts "
+                        + "%8.2f Mops/s mixed\n", threads, mineInsertRate, mineRate, javaInsertRate, javaRate);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Puts keys 0 .. K - 1 into the empty MAP, each of THREADS threads taking
+     * every THREADS-th key, and returns millions of inserts per second. Every
+     * put adds a new key, so the time includes each resize of the map.
+     */
+    public static double timeInserts(Ops map, int threads, int K) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < K; i += threads) {
+                    map.put(i, i);
+                }
+            });
+        }
+        return K / runAll(workers) / 1e6;
+    }
+
+    /**
+     * Runs N operations on each of THREADS threads against MAP, which holds
+     * keys 0 .. K - 1, and returns millions of operations per second.
+     */
+    public static double timeOps(Ops map, int threads, int K, int N) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < N; i++) {
+                    Integer key = random.nextInt(K);
+                    if (random.nextInt(100) < PUT_PERCENT) {
+                        map.put(key, i);
+                    } else {
+                        map.get(key);
+                    }
+                }
+            });
+        }
+        return (double) threads * N / runAll(workers) / 1e6;
+    }
+
+    /** Starts WORKERS, waits for all of them and returns the seconds taken. */
+    private static double runAll(Thread[] workers) throws InterruptedException {
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
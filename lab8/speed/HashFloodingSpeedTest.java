@@ -0,0 +1,87 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMapAdaptiveBuckets;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapLLBuckets;
+
+/** Times maps fed N keys that all share one hash code, the input an
+ *  attacker would send to make every lookup a linear scan.
+ *  @author Hao Chen
+ */
+public class HashFloodingSpeedTest {
+    /**
+     * Requests user input and floods each map with N colliding Strings,
+     * then looks each of them up. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts N Strings with identical hash codes\n"
+                + " into different types of maps, then gets every one of them.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # colliding strings to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            String[] keys = collidingKeys(N);
+
+            timeFloodMap61B(new MyHashMapLLBuckets<>(), keys);
+            timeFloodMap61B(new MyHashMapALBuckets<>(), keys);
+            timeFloodMap61B(new MyHashMapAdaptiveBuckets<>(), keys);
+            timeFloodHashMap(keys);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns N distinct Strings with the same hash code. */
+    public static String[] collidingKeys(int N) {
+        int pairs = 1;
+        while ((1L << pairs) < N) {
+            pairs += 1;
+        }
+        String[] keys = new String[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = StringUtils.collidingString(i, pairs);
+        }
+        return keys;
+    }
+
+    /** Puts then gets every one of KEYS in MAP and prints the time of each phase. */
+    public static void timeFloodMap61B(Map61B<String, Integer> map, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        double putTime = sw.elapsedTime();
+        sw = new Stopwatch();
+        for (String key : keys) {
+            map.get(key);
+        }
+        System.out.printf("%s: put %.2f sec, get %.2f sec\n", map.getClass(), putTime, sw.elapsedTime());
+    }
+
+    /** Puts then gets every one of KEYS in a java.util.HashMap and prints the time of each phase. */
+    public static void timeFloodHashMap(String[] keys) {
+        HashMap<String, Integer> map = new HashMap<>();
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        double putTime = sw.elapsedTime();
+        sw = new Stopwatch();
+        for (String key : keys) {
+            map.get(key);
+        }
+        System.out.printf("Java's Built-in HashMap: put %.2f sec, get %.2f sec\n", putTime, sw.elapsedTime());
+    }
+}
@@ -79,13 +79,16 @@ public class InsertRandomSpeedTest {
 
     /**
      * Attempts to insert N random strings of length L into map,
-     * Prints time of the N insert calls, otherwise
+     * Prints time of the N insert calls and the latency of looking
+     * each key up again, otherwise
      * Prints a nice message about the error
      */
     public static void timeRandomMap61B(Map61B<String, Integer> map, int N, int L) {
         try {
             double mapTime = insertRandom(map, N, L);
-            System.out.printf(map.getClass() + ": %.2f sec\n", mapTime);
+            long[] latency = BucketsSpeedTest.lookupLatency(map::get, map);
+            System.out.printf(map.getClass() + ": %.2f sec, get p50 %d ns, p99 %d ns\n",
+                    mapTime, latency[0], latency[1]);
         } catch (StackOverflowError e) {
             printInfoOnStackOverflow(N, L);
         } catch (RuntimeException e) {
@@ -95,13 +98,16 @@ public class InsertRandomSpeedTest {
 
     /**
      * Attempts to insert N random strings of length L into a HashMap
-     * Prints time of the N insert calls, otherwise
+     * Prints time of the N insert calls and the latency of looking
+     * each key up again, otherwise
      * Prints a nice message about the error
      */
     public static void timeRandomHashMap(HashMap<String, Integer> hashMap, int N, int L) {
         try {
             double javaTime = insertRandom(hashMap, N, L);
-            System.out.printf("Java's Built-in HashMap: %.2f sec\n", javaTime);
+            long[] latency = BucketsSpeedTest.lookupLatency(hashMap::get, hashMap.keySet());
+            System.out.printf("Java's Built-in HashMap: %.2f sec, get p50 %d ns, p99 %d ns\n",
+                    javaTime, latency[0], latency[1]);
         } catch (StackOverflowError e) {
             printInfoOnStackOverflow(N, L);
         } catch (RuntimeException e) {
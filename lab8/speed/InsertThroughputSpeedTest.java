@@ -0,0 +1,79 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapOpenAddressing;
+
+/** Measures insert throughput when a map grows from empty to millions of
+ *  keys, which is dominated by how cheaply the map resizes.
+ *  @author Hao Chen
+ */
+public class InsertThroughputSpeedTest {
+    /**
+     * Requests user input and inserts the keys 0 .. N - 1 into each map,
+     * starting from the default capacity. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts the Integers 0 .. N - 1\n"
+                + " into maps of the default initial size\n"
+                + " and reports inserts per second (try N = 10000000).\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            timeInsertMap61B(new MyHashMap<>(), N);
+            timeInsertMap61B(new MyHashMapOpenAddressing<>(), N);
+            timeInsertHashMap(N);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Inserts the keys 0 .. N - 1 into MAP and prints the throughput. */
+    public static void timeInsertMap61B(Map61B<Integer, Integer> map, int N) {
+        Integer[] keys = keys(N);
+        System.gc();
+        Stopwatch sw = new Stopwatch();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        printThroughput(map.getClass().toString(), N, sw.elapsedTime());
+    }
+
+    /** Inserts the keys 0 .. N - 1 into a java.util.HashMap and prints the throughput. */
+    public static void timeInsertHashMap(int N) {
+        Integer[] keys = keys(N);
+        HashMap<Integer, Integer> map = new HashMap<>();
+        System.gc();
+        Stopwatch sw = new Stopwatch();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        printThroughput("Java's Built-in HashMap", N, sw.elapsedTime());
+    }
+
+    /** Boxes the keys up front so the timed loop measures only the map. */
+    private static Integer[] keys(int N) {
+        Integer[] keys = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = i;
+        }
+        return keys;
+    }
+
+    private static void printThroughput(String name, int N, double seconds) {
+        System.out.printf("%s: %.2f sec, %.2f M inserts/sec\n", name, seconds, N / seconds / 1e6);
+    }
+}
@@ -0,0 +1,76 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Scanner;
+
+import hashmap.MappedStringLongMap;
+import hashmap.MyHashMap;
+
+/** Compares building MyHashMap from scratch with reopening a
+ *  MappedStringLongMap that already holds the same entries.
+ *  @author Hao Chen
+ */
+public class MappedMapSpeedTest {
+    /**
+     * Requests user input, writes N random strings of length L to a mapped
+     * map in a temporary file, then times reopening it. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program stores N random Strings of length L\n"
+                + " as <String, Long> pairs in MyHashMap and in a\n"
+                + " memory-mapped map, then times reopening the mapped map.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            String[] keys = new String[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(L);
+            }
+
+            Stopwatch sw = new Stopwatch();
+            MyHashMap<String, Long> heapMap = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                heapMap.put(keys[i], (long) i);
+            }
+            System.out.printf("MyHashMap build: %.2f sec\n", sw.elapsedTime());
+            heapMap = null;
+
+            File file = File.createTempFile("mapped", ".map");
+            file.delete();
+            sw = new Stopwatch();
+            MappedStringLongMap mapped = new MappedStringLongMap(file);
+            for (int i = 0; i < N; i++) {
+                mapped.put(keys[i], i);
+            }
+            mapped.close();
+            System.out.printf("MappedStringLongMap build: %.2f sec\n", sw.elapsedTime());
+
+            sw = new Stopwatch();
+            mapped = new MappedStringLongMap(file);
+            double reopenTime = sw.elapsedTime();
+            sw = new Stopwatch();
+            long sum = 0;
+            for (String key : keys) {
+                sum += mapped.getOrDefault(key, 0);
+            }
+            System.out.printf("MappedStringLongMap reopen: %.3f sec, then %d gets: %.2f sec (checksum %d)\n",
+                    reopenTime, N, sw.elapsedTime(), sum);
+            mapped.close();
+            file.delete();
+            new File(file.getPath() + ".keys").delete();
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+}
@@ -0,0 +1,254 @@
+package speed;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import hashmap.ConcurrentMyHashMap;
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapAdaptiveBuckets;
+import hashmap.MyHashMapCuckoo;
+import hashmap.MyHashMapHAMT;
+import hashmap.MyHashMapHSBuckets;
+import hashmap.MyHashMapLLBuckets;
+import hashmap.MyHashMapOpenAddressing;
+import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapSwiss;
+import hashmap.MyHashMapTSBuckets;
+import hashmap.ULLMap;
+
+/** Reports how much memory each map implementation retains, by walking
+ *  the graph of objects reachable from the map with reflection and adding
+ *  up their estimated sizes. The keys and values themselves are left out,
+ *  since every map holds the same ones, so the figures are the overhead of
+ *  the data structure alone.
+ *
+ *  Object sizes follow the HotSpot layout: a 12-byte object header and
+ *  4-byte references with compressed oops, 16 and 8 bytes without, array
+ *  headers 4 bytes longer, and every object padded to 8 bytes. Walking the
+ *  buckets from java.util needs their private fields, so run with
+ *      --add-opens java.base/java.util=ALL-UNNAMED
+ *      --add-opens java.base/java.util.concurrent=ALL-UNNAMED
+ *      --add-opens java.base/java.util.concurrent.atomic=ALL-UNNAMED
+ *  @author Hao Chen
+ */
+public class MemoryFootprintTest {
+    /** ULLMap is quadratic to fill, so it is only measured up to this many entries. */
+    private static final int ULLMAP_LIMIT = 10000;
+
+    private static final boolean COMPRESSED_OOPS = ManagementFactory
+            .getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+            .getVMOption("UseCompressedOops").getValue().equals("true");
+
+    private static final int REFERENCE_SIZE = COMPRESSED_OOPS ? 4 : 8;
+    private static final int OBJECT_HEADER = COMPRESSED_OOPS ? 12 : 16;
+    private static final int ARRAY_HEADER = OBJECT_HEADER + 4;
+
+    /** Instance fields that hold references, and shallow size, per class. */
+    private static final Map<Class<?>, List<Field>> REFERENCE_FIELDS = new HashMap<>();
+    private static final Map<Class<?>, Long> SHALLOW_SIZES = new HashMap<>();
+
+    /**
+     * Requests user input and prints the footprint of every map holding
+     * N random strings of length L. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts random "
+                + "Strings of length L\n"
+                + " Into different types of maps "
+                + "as <String, Integer> pairs\n"
+                + " and reports the memory each map retains, "
+                + "not counting the keys and values.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            String[] keys = new String[N];
+            Integer[] values = new Integer[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(L);
+                values[i] = i;
+            }
+
+            if (N <= ULLMAP_LIMIT) {
+                printFootprint(new ULLMap<>(), keys, values);
+            }
+            printFootprint(new MyHashMap<>(), keys, values);
+            printFootprint(new MyHashMapALBuckets<>(), keys, values);
+            printFootprint(new MyHashMapLLBuckets<>(), keys, values);
+            printFootprint(new MyHashMapTSBuckets<>(), keys, values);
+            printFootprint(new MyHashMapHSBuckets<>(), keys, values);
+            printFootprint(new MyHashMapPQBuckets<>(), keys, values);
+            printFootprint(new MyHashMapAdaptiveBuckets<>(), keys, values);
+            printFootprint(new MyHashMapOpenAddressing<>(), keys, values);
+            printFootprint(new MyHashMapCuckoo<>(), keys, values);
+            printFootprint(new MyHashMapSwiss<>(), keys, values);
+            printFootprint(new MyHashMapHAMT<>(), keys, values);
+            printFootprint(new ConcurrentMyHashMap<>(), keys, values);
+            printJavaHashMapFootprint(keys, values);
+
+            System.out.print("\nWould you like to try more tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Puts KEYS[i] -> VALUES[i] into MAP and prints the memory it retains. */
+    public static void printFootprint(Map61B<String, Integer> map, String[] keys, Integer[] values) {
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values[i]);
+        }
+        printFootprint(map.getClass().toString(), map, map.size(), keys, values);
+    }
+
+    /** Puts KEYS[i] -> VALUES[i] into a java.util.HashMap and prints the memory it retains. */
+    public static void printJavaHashMapFootprint(String[] keys, Integer[] values) {
+        HashMap<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values[i]);
+        }
+        printFootprint("Java's Built-in HashMap", map, map.size(), keys, values);
+    }
+
+    private static void printFootprint(String name, Object map, int size, String[] keys, Integer[] values) {
+        Set<Object> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(excluded, keys);
+        Collections.addAll(excluded, values);
+        try {
+            long bytes = retainedSize(map, excluded);
+            System.out.printf("%s: %s retained, %.1f bytes/entry\n",
+                    name, formatBytes(bytes), (double) bytes / size);
+        } catch (InaccessibleObjectException e) {
+            System.out.println(name + ": cannot read JDK internals, "
+                    + "rerun with the --add-opens flags listed in MemoryFootprintTest");
+        }
+    }
+
+    /**
+     * Returns the total estimated size of the objects reachable from ROOT,
+     * not following references into EXCLUDED objects or classes.
+     */
+    public static long retainedSize(Object root, Set<Object> excluded) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        long total = 0;
+        while (!stack.isEmpty()) {
+            Object obj = stack.pop();
+            if (obj instanceof Class || excluded.contains(obj) || !visited.add(obj)) {
+                continue;
+            }
+            Class<?> type = obj.getClass();
+            if (type.isArray()) {
+                total += arraySize(obj);
+                if (!type.getComponentType().isPrimitive()) {
+                    for (Object element : (Object[]) obj) {
+                        if (element != null) {
+                            stack.push(element);
+                        }
+                    }
+                }
+                continue;
+            }
+            total += shallowSize(type);
+            for (Field f : referenceFields(type)) {
+                try {
+                    Object child = f.get(obj);
+                    if (child != null) {
+                        stack.push(child);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return total;
+    }
+
+    private static long arraySize(Object array) {
+        Class<?> component = array.getClass().getComponentType();
+        long elementSize = component.isPrimitive() ? primitiveSize(component) : REFERENCE_SIZE;
+        return align(ARRAY_HEADER + elementSize * Array.getLength(array));
+    }
+
+    /** Returns the size of an instance of TYPE: its header plus all of its instance fields. */
+    private static long shallowSize(Class<?> type) {
+        Long size = SHALLOW_SIZES.get(type);
+        if (size == null) {
+            long fields = 0;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        fields += f.getType().isPrimitive() ? primitiveSize(f.getType()) : REFERENCE_SIZE;
+                    }
+                }
+            }
+            size = align(OBJECT_HEADER + fields);
+            SHALLOW_SIZES.put(type, size);
+        }
+        return size;
+    }
+
+    /** Returns the accessible instance fields of TYPE and its superclasses that hold references. */
+    private static List<Field> referenceFields(Class<?> type) {
+        List<Field> fields = REFERENCE_FIELDS.get(type);
+        if (fields == null) {
+            fields = new ArrayList<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+                        f.setAccessible(true);
+                        fields.add(f);
+                    }
+                }
+            }
+            REFERENCE_FIELDS.put(type, fields);
+        }
+        return fields;
+    }
+
+    private static long primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,89 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.Scanner;
+
+import hashmap.IntIntHashMap;
+import hashmap.LongObjectHashMap;
+import hashmap.MyHashMap;
+
+/** Compares the primitive-keyed maps with MyHashMap on boxed keys, by
+ *  insert time and by heap used per entry.
+ *  @author Hao Chen
+ */
+public class PrimitiveMapSpeedTest {
+    /** One shared value for the long-keyed maps, so only the map itself is measured. */
+    private static final Object VALUE = new Object();
+
+    /**
+     * Requests user input and inserts N keys into each map. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts N int keys and N long keys into the\n"
+                + " primitive maps and into MyHashMap, and reports the time taken\n"
+                + " and the heap retained per entry.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            long before = usedMemory();
+            Stopwatch sw = new Stopwatch();
+            MyHashMap<Integer, Integer> boxedInts = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                boxedInts.put(i * 31, i);
+            }
+            report("MyHashMap<Integer, Integer>", sw.elapsedTime(), usedMemory() - before, N);
+            boxedInts = null;
+
+            before = usedMemory();
+            sw = new Stopwatch();
+            IntIntHashMap ints = new IntIntHashMap();
+            for (int i = 0; i < N; i++) {
+                ints.put(i * 31, i);
+            }
+            report("IntIntHashMap", sw.elapsedTime(), usedMemory() - before, N);
+            ints = null;
+
+            before = usedMemory();
+            sw = new Stopwatch();
+            MyHashMap<Long, Object> boxedLongs = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                boxedLongs.put(i * 1000003L, VALUE);
+            }
+            report("MyHashMap<Long, Object>", sw.elapsedTime(), usedMemory() - before, N);
+            boxedLongs = null;
+
+            before = usedMemory();
+            sw = new Stopwatch();
+            LongObjectHashMap<Object> longs = new LongObjectHashMap<>();
+            for (int i = 0; i < N; i++) {
+                longs.put(i * 1000003L, VALUE);
+            }
+            report("LongObjectHashMap<Object>", sw.elapsedTime(), usedMemory() - before, N);
+            longs = null;
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns the heap in use after asking the collector to run a few times. */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String name, double seconds, long bytes, int N) {
+        System.out.printf("%-28s %.2f sec, %6.1f bytes/entry\n", name + ":", seconds, (double) bytes / N);
+    }
+}
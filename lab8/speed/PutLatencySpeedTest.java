@@ -0,0 +1,98 @@
+package speed;
+
+import java.io.IOException;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+
+/** Times every put into a growing map and prints a latency histogram, to
+ *  compare stop-the-world resizing with incremental resizing.
+ *  @author Hao Chen
+ */
+public class PutLatencySpeedTest {
+    /** Histogram bin I counts puts that took less than 2^(I + 1) ns. */
+    private static final int BINS = 40;
+
+    /**
+     * Requests user input and inserts the keys 0 .. N - 1 into MyHashMap
+     * with each resize mode. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts the Integers 0 .. N - 1\n"
+                + " into MyHashMap with stop-the-world and incremental resizing\n"
+                + " and prints how long each put took.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys to insert into each map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            System.out.println("\nStop-the-world resize:");
+            printHistogram(timePuts(new MyHashMap<>(16, 0.75, false), N), N);
+            System.out.println("\nIncremental resize:");
+            printHistogram(timePuts(new MyHashMap<>(16, 0.75, true), N), N);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Puts the keys 0 .. N - 1 into MAP and returns the latency histogram. */
+    public static long[] timePuts(Map61B<Integer, Integer> map, int N) {
+        Integer[] keys = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = i;
+        }
+        long[] histogram = new long[BINS];
+        System.gc();
+        for (Integer key : keys) {
+            long start = System.nanoTime();
+            map.put(key, key);
+            long elapsed = System.nanoTime() - start;
+            histogram[Math.min(BINS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1, elapsed)))] += 1;
+        }
+        return histogram;
+    }
+
+    /** Prints the non-empty bins of HISTOGRAM, which counts N puts, and its percentiles. */
+    public static void printHistogram(long[] histogram, int N) {
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            if (histogram[i] == 0) {
+                continue;
+            }
+            seen += histogram[i];
+            System.out.printf("  < %12s: %10d (%.4f%%)\n", formatNanos(1L << (i + 1)),
+                    histogram[i], 100.0 * seen / N);
+        }
+        System.out.printf("  p50 < %s, p99 < %s, p99.9 < %s, max < %s\n",
+                formatNanos(percentile(histogram, N, 0.5)), formatNanos(percentile(histogram, N, 0.99)),
+                formatNanos(percentile(histogram, N, 0.999)), formatNanos(percentile(histogram, N, 1.0)));
+    }
+
+    /** Returns the upper bound of the bin holding the P quantile of N samples. */
+    private static long percentile(long[] histogram, int N, double p) {
+        long rank = (long) Math.ceil(p * N);
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return 1L << (i + 1);
+            }
+        }
+        return 1L << BINS;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1000) {
+            return nanos + " ns";
+        } else if (nanos < 1000000) {
+            return (nanos / 1000) + " us";
+        }
+        return (nanos / 1000000) + " ms";
+    }
+}
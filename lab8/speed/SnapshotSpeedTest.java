@@ -0,0 +1,142 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapHAMT;
+
+/** Hands snapshots of a map that is being updated to a reader thread,
+ *  comparing O(1) trie snapshots with copying MyHashMap.
+ *  @author Hao Chen
+ */
+public class SnapshotSpeedTest {
+    /** Lookups the reader makes in each snapshot, and updates the writer makes between snapshots. */
+    private static final int OPS_PER_SNAPSHOT = 1000;
+
+    /**
+     * Requests user input and runs the snapshot workload and a bulk load
+     * against each map. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program fills a map with the Integers 0 .. N - 1.\n"
+                + " The writer then takes S snapshots, handing each to a reader thread\n"
+                + " that looks up " + OPS_PER_SNAPSHOT + " keys in it, and updates "
+                + OPS_PER_SNAPSHOT + " keys of the live map\n between snapshots.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # keys in the map: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter # snapshots to take: ");
+            int S = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            timeSnapshots("MyHashMap (copy)", new MyHashMap<>(), SnapshotSpeedTest::copy, N, S);
+            timeSnapshots("MyHashMapHAMT (snapshot)", new MyHashMapHAMT<>(),
+                    map -> ((MyHashMapHAMT<Integer, Integer>) map).snapshot(), N, S);
+            timeBulkLoad(N);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns a new MyHashMap with the same entries as MAP. */
+    private static Map61B<Integer, Integer> copy(Map61B<Integer, Integer> map) {
+        MyHashMap<Integer, Integer> copy = new MyHashMap<>();
+        copy.ensureCapacity(map.size());
+        map.forEach(copy::put);
+        return copy;
+    }
+
+    /**
+     * Fills MAP with N keys, then takes S snapshots of it with SNAPSHOT
+     * while a reader thread looks keys up in the snapshots. Prints the
+     * time spent taking snapshots and the total time.
+     */
+    public static void timeSnapshots(String name, Map61B<Integer, Integer> map,
+                                     UnaryOperator<Map61B<Integer, Integer>> snapshot, int N, int S) {
+        for (int i = 0; i < N; i++) {
+            map.put(i, i);
+        }
+        System.gc();
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        List<Future<Long>> reads = new ArrayList<>();
+        Random random = new Random(61);
+        double snapshotTime = 0;
+        Stopwatch total = new Stopwatch();
+        try {
+            for (int s = 0; s < S; s++) {
+                Stopwatch sw = new Stopwatch();
+                Map61B<Integer, Integer> view = snapshot.apply(map);
+                snapshotTime += sw.elapsedTime();
+                long seed = random.nextLong();
+                reads.add(reader.submit(() -> readKeys(view, N, seed)));
+                for (int i = 0; i < OPS_PER_SNAPSHOT; i++) {
+                    map.put(random.nextInt(N), s);
+                }
+            }
+            long found = 0;
+            for (Future<Long> f : reads) {
+                found += f.get();
+            }
+            double totalTime = total.elapsedTime();
+            if (found != (long) S * OPS_PER_SNAPSHOT) {
+                System.out.println(name + ": reader missed " + ((long) S * OPS_PER_SNAPSHOT - found) + " keys");
+            }
+            System.out.printf("%s: snapshots %.2f sec, total %.2f sec, %.0f snapshot reads/sec\n",
+                    name, snapshotTime, totalTime, S * OPS_PER_SNAPSHOT / totalTime);
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    /** Looks up random keys below N in VIEW and returns how many were present. */
+    private static long readKeys(Map61B<Integer, Integer> view, int N, long seed) {
+        Random random = new Random(seed);
+        long found = 0;
+        for (int i = 0; i < OPS_PER_SNAPSHOT; i++) {
+            if (view.get(random.nextInt(N)) != null) {
+                found += 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Loads N keys into a trie in place, then again taking a snapshot after
+     * every put, which forces every put to copy its path.
+     */
+    public static void timeBulkLoad(int N) {
+        Stopwatch sw = new Stopwatch();
+        MyHashMapHAMT<Integer, Integer> map = new MyHashMapHAMT<>();
+        for (int i = 0; i < N; i++) {
+            map.put(i, i);
+        }
+        System.out.printf("MyHashMapHAMT bulk load, transient: %.2f sec\n", sw.elapsedTime());
+
+        sw = new Stopwatch();
+        map = new MyHashMapHAMT<>();
+        for (int i = 0; i < N; i++) {
+            map.put(i, i);
+            map.snapshot();
+        }
+        System.out.printf("MyHashMapHAMT bulk load, snapshot after every put: %.2f sec\n", sw.elapsedTime());
+    }
+}
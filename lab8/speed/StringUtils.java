@@ -27,6 +27,19 @@ public class StringUtils {
         return new String(someChars);
     }
 
+    /**
+     * Returns the Ith of the 2^PAIRS strings made of PAIRS blocks that are
+     * each "Aa" or "BB". "Aa" and "BB" have the same hash code, so all of
+     * these strings do too, which makes them useful for flooding a hash table.
+     */
+    public static String collidingString(int i, int pairs) {
+        StringBuilder sb = new StringBuilder(2 * pairs);
+        for (int bit = pairs - 1; bit >= 0; bit--) {
+            sb.append(((i >>> bit) & 1) == 0 ? "Aa" : "BB");
+        }
+        return sb.toString();
+    }
+
     /**
      * Returns true if string S consists of characters between
      * 'a' and 'z' only. No spaces, numbers, upper-case, or any other
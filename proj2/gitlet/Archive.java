@@ -0,0 +1,137 @@
+package gitlet;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Implements the archive command, which writes the files of a commit to a
+ *  tar, gzipped tar or zip file.
+ *
+ *  Blobs are copied straight from the object store into the archive stream
+ *  one at a time, in trackedFilesMap order, so nothing is written to the
+ *  working directory and memory use does not grow with the commit.
+ *
+ *  @author Hao Chen
+ */
+public class Archive {
+    /** Size of a tar header and the unit tar data is padded to. */
+    private static final int TAR_BLOCK = 512;
+
+    /** Longest name that fits in a ustar header's name field. */
+    private static final int TAR_NAME_LENGTH = 100;
+
+    public static void archive(String commitHash, String outPath) {
+        // resolveCommitHash rejects blobs by reading only this one object.
+        String fullHash = resolveCommitHash(commitHash);
+        if (fullHash == null) {
+            System.out.println("No commit with that id exists.");
+            return;
+        }
+        Commit commit = getObjectByHash(fullHash, Commit.class);
+        TreeMap<String, String> trackedFilesMap = commit.getTrackedFilesMap();
+        long mtime = commit.getTimestamp().toEpochSecond();
+
+        boolean isZip = outPath.endsWith(".zip");
+        boolean isGzip = outPath.endsWith(".tar.gz") || outPath.endsWith(".tgz");
+        if (!isZip && !isGzip && !outPath.endsWith(".tar")) {
+            System.out.println("Archive name must end in .tar, .tar.gz, .tgz or .zip.");
+            return;
+        }
+        for (String filename : trackedFilesMap.keySet()) {
+            if (!isZip && filename.getBytes(StandardCharsets.UTF_8).length > TAR_NAME_LENGTH) {
+                System.out.println("File name too long for a tar archive: " + filename);
+                return;
+            }
+        }
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outPath))) {
+            if (isZip) {
+                writeZip(out, trackedFilesMap, mtime);
+            } else if (isGzip) {
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                writeTar(gzip, trackedFilesMap, mtime);
+                gzip.finish();
+            } else {
+                writeTar(out, trackedFilesMap, mtime);
+            }
+        } catch (IOException excp) {
+            System.out.println("Cannot write archive: " + excp.getMessage());
+        }
+    }
+
+    private static void writeZip(OutputStream out, TreeMap<String, String> files, long mtime) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            ZipEntry zipEntry = new ZipEntry(entry.getKey());
+            zipEntry.setLastModifiedTime(FileTime.fromMillis(mtime * 1000));
+            zip.putNextEntry(zipEntry);
+            Files.copy(getFileByHash(entry.getValue()).toPath(), zip);
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    private static void writeTar(OutputStream out, TreeMap<String, String> files, long mtime) throws IOException {
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            File blob = getFileByHash(entry.getValue());
+            long size = blob.length();
+            out.write(tarHeader(entry.getKey(), size, mtime));
+            Files.copy(blob.toPath(), out);
+            int padding = (int) ((TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK);
+            out.write(new byte[padding]);
+        }
+        // Two zero blocks mark the end of the archive.
+        out.write(new byte[2 * TAR_BLOCK]);
+    }
+
+    /** Returns a ustar header for a regular file NAME of SIZE bytes last
+     *  modified at MTIME seconds since the epoch. */
+    private static byte[] tarHeader(String name, long size, long mtime) {
+        byte[] header = new byte[TAR_BLOCK];
+        putField(header, 0, 100, name.getBytes(StandardCharsets.UTF_8));
+        putOctal(header, 100, 8, 0644);
+        putOctal(header, 108, 8, 0);
+        putOctal(header, 116, 8, 0);
+        putOctal(header, 124, 12, size);
+        putOctal(header, 136, 12, mtime);
+        header[156] = '0';
+        putField(header, 257, 6, "ustar\0".getBytes(StandardCharsets.US_ASCII));
+        putField(header, 263, 2, "00".getBytes(StandardCharsets.US_ASCII));
+
+        // The checksum is computed with its own field read as spaces.
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        putOctal(header, 148, 7, checksum);
+        return header;
+    }
+
+    private static void putField(byte[] header, int offset, int length, byte[] value) {
+        System.arraycopy(value, 0, header, offset, Math.min(length, value.length));
+    }
+
+    /** Writes VALUE as a zero-padded octal numeral filling LENGTH - 1 bytes,
+     *  followed by a NUL. */
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String octal = String.format("%0" + (length - 1) + "o", value);
+        putField(header, offset, length - 1, octal.getBytes(StandardCharsets.US_ASCII));
+        header[offset + length - 1] = 0;
+    }
+}
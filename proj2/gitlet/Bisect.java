@@ -0,0 +1,369 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Implements the bisect command, a binary search over the commit graph for
+ *  the commit that introduced a regression.
+ *
+ *  While bisecting, the working directory holds the commit under test but
+ *  HEAD and the branch heads stay where they were; "bisect reset" puts the
+ *  working directory back on the original head commit.
+ *
+ *  @author Hao Chen
+ */
+public class Bisect {
+    /** The .gitlet/BISECT file holding the state of a bisect in progress. */
+    public static final File BISECT = join(GITLET_DIR, "BISECT");
+
+    /** Exit status of a bisect run script meaning "cannot test this commit". */
+    private static final int SKIP_EXIT_CODE = 125;
+
+    /** Everything a bisect needs to carry from one invocation to the next. */
+    private static class State implements Serializable {
+        /** The head commit when the bisect started. */
+        String originalHead;
+        /** The commit currently checked out into the working directory. */
+        String current;
+        /** The commit known to be bad, or null if not yet marked. */
+        String bad;
+        /** Commits known to be good. */
+        TreeSet<String> good = new TreeSet<>();
+        /** Commits that cannot be tested. */
+        TreeSet<String> skipped = new TreeSet<>();
+        /** Set once the first bad commit has been found. */
+        boolean finished;
+        /** Parent hashes of every commit visited so far, so each step walks
+         *  the commit graph without reading commit objects again. */
+        HashMap<String, String[]> parents = new HashMap<>();
+    }
+
+    public static void bisect(String[] args) {
+        String subcommand = args[1];
+        if (subcommand.equals("start")) {
+            start();
+            return;
+        }
+        if (!BISECT.exists()) {
+            System.out.println("You are not bisecting.");
+            return;
+        }
+        State state = readObject(BISECT, State.class);
+        switch (subcommand) {
+            case "good":
+            case "bad":
+            case "skip":
+                String commitHash = args.length == 3 ? resolveCommitHash(args[2]) : state.current;
+                if (commitHash == null) {
+                    System.out.println("No commit with that id exists.");
+                    return;
+                }
+                mark(state, subcommand, commitHash);
+                step(state);
+                break;
+            case "run":
+                run(state, String.join(" ", Arrays.copyOfRange(args, 2, args.length)));
+                break;
+            case "reset":
+                reset(state);
+                return;
+            default:
+                System.out.println("No bisect subcommand with that name exists.");
+                return;
+        }
+        writeObject(BISECT, state);
+    }
+
+    private static void start() {
+        if (BISECT.exists()) {
+            System.out.println("You are already bisecting.");
+            return;
+        }
+        StagingArea stagingArea = readObject(INDEX, StagingArea.class);
+        if (!stagingArea.filesForAdditionMap.isEmpty() || !stagingArea.filesForDeletionMap.isEmpty()) {
+            System.out.println("You have uncommitted changes.");
+            return;
+        }
+        // Switching commits would overwrite unstaged edits to tracked files.
+        Commit headCommit = getHeadCommit();
+        for (Map.Entry<String, String> entry : headCommit.getTrackedFilesMap().entrySet()) {
+            File file = join(CWD, entry.getKey());
+            boolean changed = file.exists()
+                ? !getBlobHash(file).equals(entry.getValue())
+                : SparseCheckout.isIncluded(entry.getKey());
+            if (changed) {
+                System.out.println("You have uncommitted changes.");
+                return;
+            }
+        }
+        State state = new State();
+        state.originalHead = computeObjHash(headCommit);
+        state.current = state.originalHead;
+        writeObject(BISECT, state);
+    }
+
+    private static void mark(State state, String verdict, String commitHash) {
+        if (state.finished) {
+            return;
+        }
+        switch (verdict) {
+            case "good":
+                state.good.add(commitHash);
+                break;
+            case "bad":
+                state.bad = commitHash;
+                break;
+            default:
+                state.skipped.add(commitHash);
+                break;
+        }
+    }
+
+    /** Runs SCRIPT on every commit picked until the first bad commit is found,
+     *  marking each commit from the script's exit status the way git does:
+     *  0 is good, 125 is skip, anything else below 128 is bad. */
+    private static void run(State state, String script) {
+        if (state.bad == null || state.good.isEmpty()) {
+            System.out.println("bisect run needs both a good and a bad commit.");
+            return;
+        }
+        while (!state.finished) {
+            int exitCode = runScript(script);
+            if (exitCode < 0 || exitCode >= 128) {
+                System.out.println("bisect run failed: exit code " + exitCode + " from '" + script + "'.");
+                return;
+            }
+            String verdict = exitCode == 0 ? "good" : exitCode == SKIP_EXIT_CODE ? "skip" : "bad";
+            mark(state, verdict, state.current);
+            if (!step(state)) {
+                return;
+            }
+            writeObject(BISECT, state);
+        }
+    }
+
+    private static int runScript(String script) {
+        try {
+            Process process = new ProcessBuilder("sh", "-c", script)
+                .directory(CWD)
+                .inheritIO()
+                .start();
+            return process.waitFor();
+        } catch (IOException | InterruptedException excp) {
+            return -1;
+        }
+    }
+
+    private static void reset(State state) {
+        switchWorkingTree(state.current, state.originalHead);
+        BISECT.delete();
+    }
+
+    /** Picks the next commit to test and checks it out, or reports the first
+     *  bad commit. Returns false if the bisect cannot make progress. */
+    private static boolean step(State state) {
+        if (state.finished) {
+            return true;
+        }
+        if (state.bad == null || state.good.isEmpty()) {
+            return true;
+        }
+
+        // Candidates are the ancestors of the bad commit that are not
+        // ancestors of any good commit.
+        HashSet<String> goodAncestors = ancestors(state, state.good, Collections.emptySet());
+        if (goodAncestors.contains(state.bad)) {
+            System.out.println("The bad commit is an ancestor of a good commit.");
+            return false;
+        }
+        HashSet<String> candidates = ancestors(state, Collections.singleton(state.bad), goodAncestors);
+
+        String next = pickMidpoint(state, candidates);
+        if (next == null) {
+            if (candidates.size() > 1) {
+                // Everything but the bad commit was skipped.
+                System.out.println("There are only 'skip'ped commits left to test.");
+                System.out.println("The first bad commit could be any of:");
+                for (String hash : candidates) {
+                    System.out.println(hash);
+                }
+            } else {
+                System.out.println(state.bad + " is the first bad commit");
+                printCommit(getObjectByHash(state.bad, Commit.class));
+            }
+            state.finished = true;
+            return true;
+        }
+
+        int left = candidates.size() - 1;
+        int steps = 31 - Integer.numberOfLeadingZeros(Math.max(left, 1));
+        System.out.println("Bisecting: " + left / 2 + " revisions left to test after this (roughly "
+            + steps + " steps)");
+        switchWorkingTree(state.current, next);
+        state.current = next;
+        System.out.println("[" + next + "] " + getObjectByHash(next, Commit.class).getMessage());
+        return true;
+    }
+
+    /** Returns the commits reachable from STARTS without passing through a
+     *  commit in STOP. */
+    private static HashSet<String> ancestors(State state, Set<String> starts, Set<String> stop) {
+        HashSet<String> result = new HashSet<>();
+        ArrayDeque<String> queue = new ArrayDeque<>(starts);
+        while (!queue.isEmpty()) {
+            String hash = queue.pop();
+            if (stop.contains(hash) || !result.add(hash)) {
+                continue;
+            }
+            for (String parent : parentsOf(state, hash)) {
+                queue.add(parent);
+            }
+        }
+        return result;
+    }
+
+    private static String[] parentsOf(State state, String commitHash) {
+        String[] parents = state.parents.get(commitHash);
+        if (parents == null && Shallow.isBoundary(commitHash)) {
+            parents = new String[0];
+            state.parents.put(commitHash, parents);
+        }
+        if (parents == null) {
+            Commit commit = getObjectByHash(commitHash, Commit.class);
+            String first = commit.getFirstParentHash();
+            String second = commit.getSecondParentHash();
+            if (first == null) {
+                parents = new String[0];
+            } else if (second == null) {
+                parents = new String[]{first};
+            } else {
+                parents = new String[]{first, second};
+            }
+            state.parents.put(commitHash, parents);
+        }
+        return parents;
+    }
+
+    /** Returns the candidate that splits CANDIDATES most evenly by the number
+     *  of candidates it can reach, or null if there is nothing left to test.
+     *
+     *  Counts are computed in topological order: a commit with a single
+     *  candidate parent reaches one more commit than that parent, so only
+     *  merge commits need their own walk. */
+    private static String pickMidpoint(State state, HashSet<String> candidates) {
+        int total = candidates.size();
+        HashMap<String, Integer> reach = new HashMap<>();
+        String best = null;
+        int bestScore = -1;
+        for (String hash : topologicalOrder(state, candidates)) {
+            ArrayList<String> candidateParents = new ArrayList<>();
+            for (String parent : parentsOf(state, hash)) {
+                if (candidates.contains(parent)) {
+                    candidateParents.add(parent);
+                }
+            }
+            int count;
+            if (candidateParents.isEmpty()) {
+                count = 1;
+            } else if (candidateParents.size() == 1) {
+                count = reach.get(candidateParents.get(0)) + 1;
+            } else {
+                count = countReachable(state, hash, candidates);
+            }
+            reach.put(hash, count);
+
+            if (hash.equals(state.bad) || state.skipped.contains(hash)) {
+                continue;
+            }
+            int score = Math.min(count, total - count);
+            if (score > bestScore) {
+                bestScore = score;
+                best = hash;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the number of CANDIDATES reachable from COMMITHASH, walking
+     *  only through candidates. */
+    private static int countReachable(State state, String commitHash, HashSet<String> candidates) {
+        HashSet<String> seen = new HashSet<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        queue.add(commitHash);
+        while (!queue.isEmpty()) {
+            String hash = queue.pop();
+            if (!candidates.contains(hash) || !seen.add(hash)) {
+                continue;
+            }
+            queue.addAll(Arrays.asList(parentsOf(state, hash)));
+        }
+        return seen.size();
+    }
+
+    /** Returns CANDIDATES ordered so that every commit comes after its
+     *  parents. */
+    private static List<String> topologicalOrder(State state, HashSet<String> candidates) {
+        List<String> order = new ArrayList<>(candidates.size());
+        HashSet<String> visited = new HashSet<>();
+        ArrayDeque<String> stack = new ArrayDeque<>();
+        ArrayDeque<Boolean> expanded = new ArrayDeque<>();
+        for (String root : candidates) {
+            stack.push(root);
+            expanded.push(false);
+            while (!stack.isEmpty()) {
+                String hash = stack.pop();
+                boolean isExpanded = expanded.pop();
+                if (isExpanded) {
+                    order.add(hash);
+                    continue;
+                }
+                if (!visited.add(hash)) {
+                    continue;
+                }
+                stack.push(hash);
+                expanded.push(true);
+                for (String parent : parentsOf(state, hash)) {
+                    if (candidates.contains(parent) && !visited.contains(parent)) {
+                        stack.push(parent);
+                        expanded.push(false);
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /** Changes the working directory from commit FROMHASH to commit TOHASH,
+     *  touching only the files whose blobs differ between the two. Files
+     *  outside the sparse-checkout patterns are left out, as by checkout. */
+    private static void switchWorkingTree(String fromHash, String toHash) {
+        if (fromHash.equals(toHash)) {
+            return;
+        }
+        TreeMap<String, String> fromFiles = getObjectByHash(fromHash, Commit.class).getTrackedFilesMap();
+        TreeMap<String, String> toFiles = getObjectByHash(toHash, Commit.class).getTrackedFilesMap();
+        for (String filename : toFiles.keySet()) {
+            if (!fromFiles.containsKey(filename) && SparseCheckout.isIncluded(filename)
+                    && join(CWD, filename).exists()) {
+                System.out.println("There is an untracked file in the way; delete it, or add and commit it first.");
+                System.exit(0);
+            }
+        }
+        for (String filename : fromFiles.keySet()) {
+            if (!toFiles.containsKey(filename)) {
+                restrictedDelete(join(CWD, filename));
+            }
+        }
+        for (Map.Entry<String, String> entry : toFiles.entrySet()) {
+            if (!entry.getValue().equals(fromFiles.get(entry.getKey()))
+                    && SparseCheckout.isIncluded(entry.getKey())) {
+                writeContents(join(CWD, entry.getKey()), readBlobByHash(entry.getValue()));
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Implements the blame command, which shows the commit that last changed
+ *  each line of a file.
+ *
+ *  Attributions are cached in .gitlet/blame, keyed by commit and file name:
+ *  who owns a line depends on the history that led to the file, not just on
+ *  its contents, so two files with the same blob, or a file reverted to old
+ *  contents, can have different owners. Blaming a file again after a new
+ *  commit only diffs that commit's version against its already-attributed
+ *  parent.
+ *
+ *  @author Hao Chen
+ */
+public class Blame {
+    /** The .gitlet/blame directory holding cached attributions. */
+    public static final File BLAME_DIR = join(GITLET_DIR, "blame");
+
+    /** Number of hash digits shown for each line. */
+    private static final int ABBREVIATED_LENGTH = 7;
+
+    public static void blame(String filename) {
+        Commit headCommit = getHeadCommit();
+        String blobHash = headCommit.getTrackedFilesMap().get(filename);
+        if (blobHash == null) {
+            System.out.println("File does not exist in that commit.");
+            return;
+        }
+
+        List<String> lines = Diff.splitLines(readBlobByHash(blobHash));
+        String[] owners = attribute(computeObjHash(headCommit), filename, blobHash, lines);
+
+        int width = String.valueOf(lines.size()).length();
+        for (int i = 0; i < lines.size(); i++) {
+            System.out.printf("%s (%" + width + "d) %s%n",
+                owners[i].substring(0, ABBREVIATED_LENGTH), i + 1, lines.get(i));
+        }
+    }
+
+    /** Returns the commit that introduced each of LINES, the contents of blob
+     *  BLOBHASH for FILENAME at commit COMMITHASH, walking first-parent
+     *  history only until every line has an owner. */
+    private static String[] attribute(String commitHash, String filename, String blobHash, List<String> lines) {
+        String[] owners = readCache(commitHash, filename);
+        if (owners != null) {
+            return owners;
+        }
+        owners = new String[lines.size()];
+
+        // position[i] is where line i of the final version sits in the
+        // version being examined; pending holds lines still without an owner.
+        int[] position = new int[lines.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            position[i] = i;
+            pending.add(i);
+        }
+
+        String currentHash = commitHash;
+        String currentBlob = blobHash;
+        List<String> currentLines = lines;
+        while (!pending.isEmpty()) {
+            if (!currentHash.equals(commitHash)) {
+                String[] cached = readCache(currentHash, filename);
+                if (cached != null) {
+                    for (int i : pending) {
+                        owners[i] = cached[position[i]];
+                    }
+                    break;
+                }
+            }
+
+            String parentHash = Shallow.isBoundary(currentHash) ? null
+                : getObjectByHash(currentHash, Commit.class).getFirstParentHash();
+            String parentBlob = parentHash == null ? null
+                : getObjectByHash(parentHash, Commit.class).getTrackedFilesMap().get(filename);
+            if (parentBlob == null) {
+                for (int i : pending) {
+                    owners[i] = currentHash;
+                }
+                break;
+            }
+            if (parentBlob.equals(currentBlob)) {
+                currentHash = parentHash;
+                continue;
+            }
+
+            List<String> parentLines = Diff.splitLines(readBlobByHash(parentBlob));
+            int[] match = Diff.matchLines(parentLines, currentLines);
+            List<Integer> stillPending = new ArrayList<>();
+            for (int i : pending) {
+                int parentPosition = match[position[i]];
+                if (parentPosition < 0) {
+                    owners[i] = currentHash;
+                } else {
+                    position[i] = parentPosition;
+                    stillPending.add(i);
+                }
+            }
+            pending = stillPending;
+            currentHash = parentHash;
+            currentBlob = parentBlob;
+            currentLines = parentLines;
+        }
+
+        writeCache(commitHash, filename, owners);
+        return owners;
+    }
+
+    /** Returns the cache file for FILENAME as of commit COMMITHASH. */
+    private static File cacheFile(String commitHash, String filename) {
+        return join(BLAME_DIR, sha1(commitHash, filename));
+    }
+
+    private static String[] readCache(String commitHash, String filename) {
+        File file = cacheFile(commitHash, filename);
+        if (!file.exists()) {
+            return null;
+        }
+        return readObject(file, String[].class);
+    }
+
+    private static void writeCache(String commitHash, String filename, String[] owners) {
+        BLAME_DIR.mkdirs();
+        writeObject(cacheFile(commitHash, filename), owners);
+    }
+
+    /** Drops every cached attribution, for when history is rewritten. */
+    static void clearCache() {
+        List<String> names = plainFilenamesIn(BLAME_DIR);
+        if (names != null) {
+            for (String name : names) {
+                join(BLAME_DIR, name).delete();
+            }
+        }
+    }
+}
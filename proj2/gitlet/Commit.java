@@ -54,6 +54,10 @@ public class Commit implements Serializable {
         return parent2;
     }
 
+    public OffsetDateTime getTimestamp() {
+        return timestamp;
+    }
+
     public String getMessage() {
         return message;
     }
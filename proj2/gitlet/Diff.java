@@ -0,0 +1,121 @@
+package gitlet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Line-based diffing between two versions of a file.
+ *
+ *  @author Hao Chen
+ */
+class Diff {
+
+    /** Largest edit distance the diff will search before giving up and
+     *  reporting the rest of the changed region as unmatched. Bounds the
+     *  memory kept for backtracking on wholesale rewrites. */
+    static final int MAX_EDIT_DISTANCE = 4096;
+
+    /** Returns the lines of CONTENT, without their line terminators. A final
+     *  newline does not start another line. */
+    static List<String> splitLines(String content) {
+        List<String> lines = new ArrayList<>(Arrays.asList(content.split("\n", -1)));
+        if (lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    /** Returns, for every line of B, the index of the line of A it is kept
+     *  from in a shortest edit script turning A into B, or -1 if that line was
+     *  inserted. */
+    static int[] matchLines(List<String> a, List<String> b) {
+        int[] match = new int[b.size()];
+        Arrays.fill(match, -1);
+
+        // Common prefix and suffix are matched directly; only the middle
+        // goes through the O(ND) search.
+        int start = 0;
+        while (start < a.size() && start < b.size() && a.get(start).equals(b.get(start))) {
+            match[start] = start;
+            start += 1;
+        }
+        int endA = a.size();
+        int endB = b.size();
+        while (endA > start && endB > start && a.get(endA - 1).equals(b.get(endB - 1))) {
+            endA -= 1;
+            endB -= 1;
+            match[endB] = endA;
+        }
+        myers(a.subList(start, endA), b.subList(start, endB), start, match);
+        return match;
+    }
+
+    /** Myers' greedy diff of A against B, recording matched lines in MATCH
+     *  shifted by OFFSET. Leaves everything unmatched if the edit distance
+     *  exceeds MAX_EDIT_DISTANCE. */
+    private static void myers(List<String> a, List<String> b, int offset, int[] match) {
+        int n = a.size();
+        int m = b.size();
+        if (n == 0 || m == 0) {
+            return;
+        }
+        int max = n + m;
+        int limit = Math.min(max, MAX_EDIT_DISTANCE);
+        // v[k + max] is the furthest x reached on diagonal k.
+        int[] v = new int[2 * max + 2];
+        // trace.get(d)[k + d] is v[k] as it stood before step d.
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= limit; d++) {
+            trace.add(Arrays.copyOfRange(v, max - d, max + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[max + k - 1] < v[max + k + 1])) {
+                    x = v[max + k + 1];
+                } else {
+                    x = v[max + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x += 1;
+                    y += 1;
+                }
+                v[max + k] = x;
+                if (x >= n && y >= m) {
+                    backtrack(trace, n, m, d, offset, match);
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Walks the recorded TRACE back from (N, M) after D edits, marking the
+     *  diagonal runs as matched lines. */
+    private static void backtrack(List<int[]> trace, int n, int m, int d, int offset, int[] match) {
+        int x = n;
+        int y = m;
+        for (; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int previousK;
+            if (k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d])) {
+                previousK = k + 1;
+            } else {
+                previousK = k - 1;
+            }
+            int previousX = previous[previousK + d];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                x -= 1;
+                y -= 1;
+                match[offset + y] = offset + x;
+            }
+            x = previousX;
+            y = previousY;
+        }
+        while (x > 0 && y > 0) {
+            x -= 1;
+            y -= 1;
+            match[offset + y] = offset + x;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Implements the fsck command, which checks the integrity of the object
+ *  store.
+ *
+ *  Every object is read once, in parallel on a work-stealing pool, and its
+ *  hash checked against its filename. Commits are kept only as their parent
+ *  and blob hashes, then a single walk from the branch heads, the commits
+ *  in the reflogs and the staging area finds missing and dangling objects.
+ *
+ *  @author Hao Chen
+ */
+public class Fsck {
+    /** Objects verified by one task before it stops splitting its share. */
+    private static final int TASK_THRESHOLD = 256;
+
+    /** What fsck needs to remember about a commit. */
+    private static class CommitLinks {
+        final String[] parents;
+        final String[] blobs;
+
+        CommitLinks(Commit commit) {
+            List<String> parentList = new ArrayList<>(2);
+            if (commit.getFirstParentHash() != null) {
+                parentList.add(commit.getFirstParentHash());
+            }
+            if (commit.getSecondParentHash() != null) {
+                parentList.add(commit.getSecondParentHash());
+            }
+            parents = parentList.toArray(new String[0]);
+            blobs = commit.getTrackedFilesMap().values().toArray(new String[0]);
+        }
+    }
+
+    /** Verifies the objects in FILES[LO, HI), splitting the range so idle
+     *  workers can steal half of it. */
+    private static class VerifyTask extends RecursiveAction {
+        private final List<File> files;
+        private final int lo;
+        private final int hi;
+        private final Result result;
+
+        VerifyTask(List<File> files, int lo, int hi, Result result) {
+            this.files = files;
+            this.lo = lo;
+            this.hi = hi;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= TASK_THRESHOLD) {
+                for (int i = lo; i < hi; i++) {
+                    verify(files.get(i), result);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new VerifyTask(files, lo, mid, result), new VerifyTask(files, mid, hi, result));
+        }
+    }
+
+    /** Findings of the parallel pass. */
+    private static class Result {
+        final ConcurrentHashMap<String, CommitLinks> commits = new ConcurrentHashMap<>();
+        final Set<String> blobs = ConcurrentHashMap.newKeySet();
+        final Set<String> corrupt = ConcurrentHashMap.newKeySet();
+        final AtomicLong bytes = new AtomicLong();
+    }
+
+    public static void fsck() {
+        long start = System.nanoTime();
+        List<File> files = listObjectFiles();
+        Result result = new Result();
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new VerifyTask(files, 0, files.size(), result));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (String hash : new TreeSet<>(result.corrupt)) {
+            System.out.println("corrupt object " + hash);
+        }
+        checkConnectivity(result);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = result.bytes.get() / (1024.0 * 1024.0);
+        System.out.printf("Checked %d objects (%.1f MB) in %.2f s: %.0f objects/s, %.1f MB/s.%n",
+            files.size(), megabytes, seconds, files.size() / seconds, megabytes / seconds);
+    }
+
+    private static List<File> listObjectFiles() {
+        List<File> files = new ArrayList<>();
+        File[] dirs = OBJECTS_DIR.listFiles(File::isDirectory);
+        if (dirs == null) {
+            return files;
+        }
+        for (File dir : dirs) {
+            List<String> names = plainFilenamesIn(dir);
+            if (names == null) {
+                continue;
+            }
+            for (String name : names) {
+                files.add(join(dir, name));
+            }
+        }
+        return files;
+    }
+
+    /** Checks that the object FILE hashes to its own name and records it in
+     *  RESULT. A commit's file is exactly the serialized commit it is the
+     *  hash of; a blob's name is the hash of its serialized contents, which
+     *  blobHash computes from the file's bytes. */
+    private static void verify(File file, Result result) {
+        String hash = file.getParentFile().getName() + file.getName();
+        ByteBuffer buffer;
+        try {
+            buffer = readObjectBuffer(file);
+        } catch (IllegalArgumentException excp) {
+            result.corrupt.add(hash);
+            return;
+        }
+        result.bytes.addAndGet(buffer.remaining());
+
+        if (sha1(buffer.duplicate()).equals(hash)) {
+            try {
+                result.commits.put(hash, new CommitLinks(readObject(buffer, Commit.class)));
+            } catch (IllegalArgumentException excp) {
+                result.corrupt.add(hash);
+            }
+            return;
+        }
+        if (blobHash(buffer).equals(hash)) {
+            result.blobs.add(hash);
+        } else {
+            result.corrupt.add(hash);
+        }
+    }
+
+    /** Returns the hash of the blob whose file holds the UTF-8 bytes in
+     *  CONTENTS: the SHA-1 of those contents serialized as a String, without
+     *  decoding them. A serialized String holds modified UTF-8, which writes
+     *  NUL as two bytes and each supplementary character as two three-byte
+     *  surrogates, so only those are rewritten; the rest of the buffer is
+     *  hashed in place. */
+    private static String blobHash(ByteBuffer contents) {
+        List<Object> parts = new ArrayList<>();
+        long length = 0;
+        int start = contents.position();
+        int i = start;
+        while (i < contents.limit()) {
+            int b = contents.get(i) & 0xff;
+            byte[] replacement;
+            int width;
+            if (b == 0) {
+                replacement = new byte[]{(byte) 0xc0, (byte) 0x80};
+                width = 1;
+            } else if ((b & 0xf8) == 0xf0 && i + 3 < contents.limit()) {
+                int codePoint = ((b & 0x07) << 18) | ((contents.get(i + 1) & 0x3f) << 12)
+                    | ((contents.get(i + 2) & 0x3f) << 6) | (contents.get(i + 3) & 0x3f);
+                replacement = new byte[6];
+                putSurrogate(replacement, 0, Character.highSurrogate(codePoint));
+                putSurrogate(replacement, 3, Character.lowSurrogate(codePoint));
+                width = 4;
+            } else {
+                i += 1;
+                continue;
+            }
+            parts.add(slice(contents, start, i));
+            parts.add(replacement);
+            length += i - start + replacement.length;
+            i += width;
+            start = i;
+        }
+        parts.add(slice(contents, start, contents.limit()));
+        length += contents.limit() - start;
+
+        // Stream magic and version, then TC_STRING with a two-byte length or
+        // TC_LONGSTRING with an eight-byte one.
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putShort((short) 0xaced).putShort((short) 5);
+        if (length <= 0xffff) {
+            header.put((byte) 0x74).putShort((short) length);
+        } else {
+            header.put((byte) 0x7c).putLong(length);
+        }
+        header.flip();
+        parts.add(0, header);
+        return sha1(parts);
+    }
+
+    private static void putSurrogate(byte[] bytes, int offset, char c) {
+        bytes[offset] = (byte) (0xe0 | (c >> 12));
+        bytes[offset + 1] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        bytes[offset + 2] = (byte) (0x80 | (c & 0x3f));
+    }
+
+    /** Returns a view of BUFFER from index FROM to index TO. */
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(to);
+        view.position(from);
+        return view;
+    }
+
+    /** Walks from every branch head, logged commit and staged blob, reporting references to
+     *  objects that do not exist, then reports objects nothing refers to. */
+    private static void checkConnectivity(Result result) {
+        TreeSet<String> missing = new TreeSet<>();
+        HashSet<String> reachable = new HashSet<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        for (String branchName : plainFilenamesIn(BRANCHES_DIR)) {
+            queue.add(readContentsAsString(join(BRANCHES_DIR, branchName)));
+        }
+        // reset REF@{N} can still reach the commits in the reflogs. One that
+        // shallow has dropped is not missing, so only existing ones count.
+        for (String commitHash : Reflog.loggedCommits()) {
+            if (result.commits.containsKey(commitHash)) {
+                queue.add(commitHash);
+            }
+        }
+        while (!queue.isEmpty()) {
+            String commitHash = queue.pop();
+            if (!reachable.add(commitHash)) {
+                continue;
+            }
+            CommitLinks links = result.commits.get(commitHash);
+            if (links == null) {
+                if (!result.corrupt.contains(commitHash)) {
+                    missing.add("missing commit " + commitHash);
+                }
+                continue;
+            }
+            for (String blobHash : links.blobs) {
+                if (reachable.add(blobHash) && !result.blobs.contains(blobHash)
+                        && !result.corrupt.contains(blobHash)) {
+                    missing.add("missing blob " + blobHash);
+                }
+            }
+            if (!Shallow.isBoundary(commitHash)) {
+                queue.addAll(Arrays.asList(links.parents));
+            }
+        }
+        StagingArea stagingArea = readObject(INDEX, StagingArea.class);
+        for (String blobHash : stagingArea.filesForAdditionMap.values()) {
+            if (reachable.add(blobHash) && !result.blobs.contains(blobHash)
+                    && !result.corrupt.contains(blobHash)) {
+                missing.add("missing blob " + blobHash);
+            }
+        }
+        for (String commitHash : getAllCommits()) {
+            if (!result.commits.containsKey(commitHash) && !result.corrupt.contains(commitHash)) {
+                missing.add("missing commit " + commitHash);
+            }
+        }
+        for (String line : missing) {
+            System.out.println(line);
+        }
+
+        TreeSet<String> dangling = new TreeSet<>();
+        for (String commitHash : result.commits.keySet()) {
+            if (!reachable.contains(commitHash)) {
+                dangling.add("dangling commit " + commitHash);
+            }
+        }
+        for (String blobHash : result.blobs) {
+            if (!reachable.contains(blobHash)) {
+                dangling.add("dangling blob " + blobHash);
+            }
+        }
+        for (String line : dangling) {
+            System.out.println(line);
+        }
+    }
+}
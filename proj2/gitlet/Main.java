@@ -61,6 +61,27 @@ public class Main {
             case "merge":
                 Repository.merge(args[1]);
                 break;
+            case "bisect":
+                Bisect.bisect(args);
+                break;
+            case "blame":
+                Blame.blame(args[1]);
+                break;
+            case "sparse-checkout":
+                SparseCheckout.sparseCheckout(args);
+                break;
+            case "shallow":
+                Shallow.shallow(args[1]);
+                break;
+            case "reflog":
+                Reflog.reflog(args.length == 2 ? args[1] : null);
+                break;
+            case "fsck":
+                Fsck.fsck();
+                break;
+            case "archive":
+                Archive.archive(args[1], args[2]);
+                break;
         }
     }
 
@@ -71,7 +92,8 @@ public class Main {
         }
 
         String[] allCommands = {"init", "add", "commit", "rm", "log", "global-log", "find", "status",
-            "checkout", "branch", "rm-branch", "reset", "merge"};
+            "checkout", "branch", "rm-branch", "reset", "merge", "bisect",
+            "blame", "sparse-checkout", "shallow", "reflog", "fsck", "archive"};
         String command = args[0];
         if (!Arrays.asList(allCommands).contains(command)) {
             System.out.println("No command with that name exists.");
@@ -88,12 +110,22 @@ public class Main {
             System.exit(0);
         }
 
+        // Commands that move the working directory or branch heads would fight
+        // with the commit a bisect has checked out.
+        String[] blockedWhileBisecting = {"add", "commit", "rm", "checkout", "reset", "merge",
+            "sparse-checkout", "shallow"};
+        if (Arrays.asList(blockedWhileBisecting).contains(command) && Bisect.BISECT.exists()) {
+            System.out.println("You are bisecting; run bisect reset first.");
+            System.exit(0);
+        }
+
         boolean valid = true;
         switch (command) {
             case "init":
             case "log":
             case "global-log":
             case "status":
+            case "fsck":
                 valid = args.length == 1;
                 break;
             case "add":
@@ -104,6 +136,8 @@ public class Main {
             case "rm-branch":
             case "reset":
             case "merge":
+            case "blame":
+            case "shallow":
                 valid = args.length == 2;
                 break;
             case "checkout":
@@ -115,6 +149,22 @@ public class Main {
                     valid = Objects.equals(args[2], "--");
                 }
                 break;
+            case "reflog":
+                valid = args.length == 1 || args.length == 2;
+                break;
+            case "archive":
+                valid = args.length == 3;
+                break;
+            case "sparse-checkout":
+                valid = args.length >= 2 && (args[1].equals("set") || args.length == 2);
+                break;
+            case "bisect":
+                if (args.length >= 2 && args[1].equals("run")) {
+                    valid = args.length >= 3;
+                } else {
+                    valid = args.length == 2 || args.length == 3;
+                }
+                break;
         }
 
         if (!valid) {
@@ -0,0 +1,237 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Append-only logs of every update to a ref, and the reflog command that
+ *  prints them.
+ *
+ *  HEAD has its log at .gitlet/logs/HEAD and each branch at
+ *  .gitlet/logs/refs/heads/BRANCH, holding fixed-size binary records of the
+ *  old hash, new hash, timestamp and operation. Appending is a single write
+ *  at the end of the file, and because every record has the same size the
+ *  log can be read newest-first by offset without parsing what comes
+ *  before. A torn record left by a crash is shorter than RECORD_SIZE; readers
+ *  ignore it, and the next append writes over it.
+ *
+ *  @author Hao Chen
+ */
+public class Reflog {
+    /** The .gitlet/logs directory holding one log per ref. */
+    public static final File LOGS_DIR = join(GITLET_DIR, "logs");
+
+    /** Name that reflog and REF@{N} use for the log of HEAD. */
+    static final String HEAD_REF = "HEAD";
+
+    /** The log recording which commit HEAD pointed to. */
+    private static final File HEAD_LOG = join(LOGS_DIR, HEAD_REF);
+
+    /** The directory of branch logs, laid out like the branch heads. */
+    private static final File BRANCH_LOGS_DIR = join(LOGS_DIR, "refs", "heads");
+
+    /** Bytes in a raw SHA-1 hash. */
+    private static final int HASH_BYTES = UID_LENGTH / 2;
+
+    /** Bytes in one record: old hash, new hash, epoch millis, operation. */
+    static final int RECORD_SIZE = 2 * HASH_BYTES + Long.BYTES + 1;
+
+    /* Operation codes. */
+    static final byte INIT = 0;
+    static final byte COMMIT = 1;
+    static final byte MERGE = 2;
+    static final byte FAST_FORWARD = 3;
+    static final byte RESET = 4;
+    static final byte CHECKOUT = 5;
+    static final byte BRANCH = 6;
+
+    /** Names printed for each operation code. */
+    private static final String[] OPERATION_NAMES = {
+        "init", "commit", "merge", "fast-forward", "reset", "checkout", "branch",
+    };
+
+    /** Matches REF@{N}. */
+    private static final Pattern ENTRY_SPEC = Pattern.compile("(.+)@\\{(\\d+)}");
+
+    /** Appends a record to the log of branch BRANCHNAME saying it moved from
+     *  OLDHASH, which is null for a new branch, to NEWHASH by OPERATION. */
+    static void append(String branchName, String oldHash, String newHash, byte operation) {
+        append(join(BRANCH_LOGS_DIR, branchName), oldHash, newHash, operation);
+    }
+
+    /** Appends a record to the log of HEAD saying it moved from OLDHASH to
+     *  NEWHASH by OPERATION. */
+    static void appendHead(String oldHash, String newHash, byte operation) {
+        append(HEAD_LOG, oldHash, newHash, operation);
+    }
+
+    private static void append(File log, String oldHash, String newHash, byte operation) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        putHash(record, oldHash);
+        putHash(record, newHash);
+        record.putLong(System.currentTimeMillis());
+        record.put(operation);
+        record.flip();
+
+        log.getParentFile().mkdirs();
+        try (FileChannel channel = FileChannel.open(log.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Cut off a torn record, so that every record stays at a multiple
+            // of RECORD_SIZE from the start.
+            long end = channel.size() - channel.size() % RECORD_SIZE;
+            channel.truncate(end);
+            while (record.hasRemaining()) {
+                channel.write(record, end + record.position());
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Removes the log of branch BRANCHNAME. */
+    static void delete(String branchName) {
+        join(BRANCH_LOGS_DIR, branchName).delete();
+    }
+
+    /** Returns the log of REFNAME, which must be HEAD or an existing branch,
+     *  or null for any other name. */
+    private static File logFile(String refName) {
+        if (refName.equals(HEAD_REF)) {
+            return HEAD_LOG;
+        }
+        List<String> branchNames = plainFilenamesIn(BRANCHES_DIR);
+        if (branchNames == null || !branchNames.contains(refName)) {
+            return null;
+        }
+        return join(BRANCH_LOGS_DIR, refName);
+    }
+
+    private static void putHash(ByteBuffer record, String hash) {
+        for (int i = 0; i < HASH_BYTES; i++) {
+            record.put(hash == null ? 0 : (byte) Integer.parseInt(hash.substring(2 * i, 2 * i + 2), 16));
+        }
+    }
+
+    private static String getHash(ByteBuffer log, int offset) {
+        StringBuilder hash = new StringBuilder(UID_LENGTH);
+        boolean allZero = true;
+        for (int i = 0; i < HASH_BYTES; i++) {
+            byte b = log.get(offset + i);
+            allZero &= b == 0;
+            hash.append(Character.forDigit((b >> 4) & 0xf, 16));
+            hash.append(Character.forDigit(b & 0xf, 16));
+        }
+        return allZero ? null : hash.toString();
+    }
+
+    /** Maps the log of REFNAME read-only, or returns null if it has none or
+     *  is not HEAD or a branch. */
+    private static MappedByteBuffer map(String refName) {
+        File log = logFile(refName);
+        return log == null ? null : map(log);
+    }
+
+    /** Maps LOG read-only, or returns null if it does not exist. */
+    private static MappedByteBuffer map(File log) {
+        if (!log.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Returns every commit hash that the log of HEAD or of a branch records. */
+    static Set<String> loggedCommits() {
+        List<File> logs = new ArrayList<>();
+        logs.add(HEAD_LOG);
+        List<String> branchNames = plainFilenamesIn(BRANCH_LOGS_DIR);
+        if (branchNames != null) {
+            for (String branchName : branchNames) {
+                logs.add(join(BRANCH_LOGS_DIR, branchName));
+            }
+        }
+        Set<String> hashes = new HashSet<>();
+        for (File log : logs) {
+            MappedByteBuffer records = map(log);
+            if (records == null) {
+                continue;
+            }
+            for (int offset = 0; offset + RECORD_SIZE <= records.capacity(); offset += RECORD_SIZE) {
+                String oldHash = getHash(records, offset);
+                if (oldHash != null) {
+                    hashes.add(oldHash);
+                }
+                hashes.add(getHash(records, offset + HASH_BYTES));
+            }
+        }
+        return hashes;
+    }
+
+    /** Returns the commit hash that SPEC, of the form REF@{N}, names: the
+     *  value REF had N updates ago. Returns null if SPEC is not of that form
+     *  or the log does not go back that far. */
+    static String resolve(String spec) {
+        Matcher matcher = ENTRY_SPEC.matcher(spec);
+        if (!matcher.matches()) {
+            return null;
+        }
+        MappedByteBuffer log = map(matcher.group(1));
+        if (log == null) {
+            return null;
+        }
+        int records = log.capacity() / RECORD_SIZE;
+        long n;
+        try {
+            n = Long.parseLong(matcher.group(2));
+        } catch (NumberFormatException excp) {
+            return null;
+        }
+        if (n >= records) {
+            return null;
+        }
+        return getHash(log, (int) (records - 1 - n) * RECORD_SIZE + HASH_BYTES);
+    }
+
+    /** Prints the log of REFNAME, or of the current branch if REFNAME is
+     *  null, newest entry first. */
+    public static void reflog(String refName) {
+        if (refName == null) {
+            refName = readContentsAsString(HEAD);
+        }
+        MappedByteBuffer log = map(refName);
+        if (log == null) {
+            System.out.println("No reflog for that ref exists.");
+            return;
+        }
+        int records = log.capacity() / RECORD_SIZE;
+        for (int i = 0; i < records; i++) {
+            int offset = (records - 1 - i) * RECORD_SIZE;
+            String oldHash = getHash(log, offset);
+            String newHash = getHash(log, offset + HASH_BYTES);
+            long millis = log.getLong(offset + 2 * HASH_BYTES);
+            byte operation = log.get(offset + 2 * HASH_BYTES + Long.BYTES);
+
+            String name = operation >= 0 && operation < OPERATION_NAMES.length
+                ? OPERATION_NAMES[operation] : "unknown";
+            String from = oldHash == null ? "" : " from " + oldHash.substring(0, 7);
+            System.out.println(newHash.substring(0, 7) + " " + refName + "@{" + i + "}: " + name + from
+                + " (" + formatter.format(Instant.ofEpochMilli(millis)) + ")");
+        }
+    }
+}
@@ -42,7 +42,7 @@ public class Repository {
         allCommits.add(hash);
         writeObject(INDEX, stagingArea);
         writeContents(HEAD, "master");
-        writeContents(MASTER, hash);
+        updateBranchHead("master", hash, Reflog.INIT);
         writeObjectWithHashAsFilename(initialCommit, hash);
         writeObject(COMMITS, allCommits);
     }
@@ -86,21 +86,43 @@ public class Repository {
         writeObject(INDEX, stagingArea);
     }
 
-    private static Commit getHeadCommit() {
+    static Commit getHeadCommit() {
         File file = getCurrentBranchHeadFile();
         String hash = readContentsAsString(file);
         return getObjectByHash(hash, Commit.class);
     }
 
+    /** Points branch BRANCHNAME at COMMITHASH, recording the move as
+     *  OPERATION in the branch's reflog, and in the HEAD reflog if it is the
+     *  current branch. */
+    static void updateBranchHead(String branchName, String commitHash, byte operation) {
+        File branchHeadFile = join(BRANCHES_DIR, branchName);
+        String oldHash = branchHeadFile.exists() ? readContentsAsString(branchHeadFile) : null;
+        writeContents(branchHeadFile, commitHash);
+        Reflog.append(branchName, oldHash, commitHash, operation);
+        if (isCurrentBranch(branchName)) {
+            Reflog.appendHead(oldHash, commitHash, operation);
+        }
+    }
+
     private static File getCurrentBranchHeadFile() {
         String branchName = readContentsAsString(HEAD);
         return join(BRANCHES_DIR,branchName);
     }
 
-    private static <T extends Serializable> String computeObjHash(T obj) {
+    static <T extends Serializable> String computeObjHash(T obj) {
         return sha1(serialize(obj));
     }
 
+    /** Stages the existing blob BLOBHASH as the new version of FILENAME
+     *  without touching the working directory. */
+    private static void stageBlob(String fileName, String blobHash) {
+        StagingArea stagingArea = readObject(INDEX, StagingArea.class);
+        stagingArea.filesForAdditionMap.put(fileName, blobHash);
+        stagingArea.filesForDeletionMap.remove(fileName);
+        writeObject(INDEX, stagingArea);
+    }
+
     public static void commit(String message, String mergedCommitHash) {
         if (message.isEmpty()) {
             System.out.println("Please enter a commit message.");
@@ -117,7 +139,8 @@ public class Repository {
 
         Commit headCommit = getHeadCommit();
         String headCommitHash = computeObjHash(headCommit);
-        TreeMap<String, String> trackedFilesMap = headCommit.getTrackedFilesMap();
+        // Copy, since the head commit may be shared through the commit cache.
+        TreeMap<String, String> trackedFilesMap = new TreeMap<>(headCommit.getTrackedFilesMap());
         for (String fileName: stagingForDeletionMap.keySet()) {
             trackedFilesMap.remove(fileName);
         }
@@ -134,7 +157,8 @@ public class Repository {
         allCommits.add(newCommitHash);
         writeObject(COMMITS, allCommits);
 
-        writeContents(getCurrentBranchHeadFile(), newCommitHash);
+        updateBranchHead(readContentsAsString(HEAD), newCommitHash,
+            mergedCommitHash == null ? Reflog.COMMIT : Reflog.MERGE);
         stagingArea.clear();
         writeObject(INDEX, stagingArea);
     }
@@ -167,14 +191,14 @@ public class Repository {
         while (true) {
             printCommit(currentCommit);
             String firstParentHash = currentCommit.getFirstParentHash();
-            if (firstParentHash == null) {
+            if (firstParentHash == null || Shallow.isBoundary(computeObjHash(currentCommit))) {
                 break;
             }
             currentCommit = getObjectByHash(firstParentHash, Commit.class);
         }
     }
 
-    private static void printCommit(Commit commit) {
+    static void printCommit(Commit commit) {
         String hash = computeObjHash(commit);
         System.out.println("===");
         System.out.println("commit " + hash);
@@ -188,7 +212,24 @@ public class Repository {
         System.out.print("\n");
     }
 
-    private static HashSet<String> getAllCommits() {
+    /** Returns the full hash of the commit named by the full or abbreviated
+     *  COMMITHASH, or null if no such commit exists. */
+    static String resolveCommitHash(String commitHash) {
+        File commitFile = getFileByHash(commitHash);
+        if (!commitFile.exists()) {
+            return null;
+        }
+        String fullHash = commitFile.getParentFile().getName() + commitFile.getName();
+        // Blobs share the object store, so make sure this one is a commit.
+        try {
+            getObjectByHash(fullHash, Commit.class);
+        } catch (IllegalArgumentException excp) {
+            return null;
+        }
+        return fullHash;
+    }
+
+    static HashSet<String> getAllCommits() {
         return readObject(COMMITS, HashSet.class);
     }
 
@@ -200,6 +241,9 @@ public class Repository {
             String currentCommitHash = queue.pop();
 
             result.add(currentCommitHash);
+            if (Shallow.isBoundary(currentCommitHash)) {
+                continue;
+            }
 
             Commit commit = getObjectByHash(currentCommitHash, Commit.class);
             String firstParentHash = commit.getFirstParentHash();
@@ -217,7 +261,7 @@ public class Repository {
 
     public static void globalLog() {
         for (String commitHash: getAllCommits()) {
-            Commit commit = readObject(getFileByHash(commitHash), Commit.class);
+            Commit commit = getObjectByHash(commitHash, Commit.class);
             printCommit(commit);
         }
     }
@@ -225,7 +269,7 @@ public class Repository {
     public static void find(String commitMessage) {
         boolean found = false;
         for (String commitHash: getAllCommits()) {
-            Commit commit = readObject(getFileByHash(commitHash), Commit.class);
+            Commit commit = getObjectByHash(commitHash, Commit.class);
             if (commitMessage.equals(commit.getMessage())) {
                 found = true;
                 System.out.println(computeObjHash(commit));
@@ -271,7 +315,7 @@ public class Repository {
         return result;
     }
 
-    private static String getBlobHash(File file) {
+    static String getBlobHash(File file) {
         return computeObjHash(readContentsAsString(file));
     }
 
@@ -319,7 +363,7 @@ public class Repository {
                 if (!stagingForAdditionMap.containsKey(filename) && !currentBlobHash.equals(trackedBlobHash)) {
                     modificationNotStagedFilenames.add(filename + " (modified)");
                 }
-            } else if (!stagingForDeletionFilenames.contains(filename)) {
+            } else if (!stagingForDeletionFilenames.contains(filename) && SparseCheckout.isIncluded(filename)) {
                 modificationNotStagedFilenames.add(filename + " (deleted)");
             }
         }
@@ -386,7 +430,7 @@ public class Repository {
             }
 
             String blobHash = trackedFilesMap.get(filename);
-            String content = readContentsAsString(getFileByHash(blobHash));
+            String content = readBlobByHash(blobHash);
             writeContents(join(CWD, filename), content);
         }
     }
@@ -410,7 +454,13 @@ public class Repository {
                 restrictedDelete(join(CWD, filename));
             }
         }
-        checkoutFilesOnSpecificCommit(commitHash, checkedOutCommitTrackedFilesMap.keySet().toArray(new String[0]));
+        List<String> includedFilenames = new ArrayList<>();
+        for (String filename: checkedOutCommitTrackedFilesMap.keySet()) {
+            if (SparseCheckout.isIncluded(filename)) {
+                includedFilenames.add(filename);
+            }
+        }
+        checkoutFilesOnSpecificCommit(commitHash, includedFilenames.toArray(new String[0]));
         // Clear staging area.
         StagingArea stagingArea = readObject(INDEX, StagingArea.class);
         stagingArea.clear();
@@ -428,16 +478,19 @@ public class Repository {
             System.out.println("No need to checkout the current branch.");
             return;
         }
-        checkoutSpecificCommit(readContentsAsString(branchHeadFile));
+        String oldHeadHash = readContentsAsString(getCurrentBranchHeadFile());
+        String newHeadHash = readContentsAsString(branchHeadFile);
+        checkoutSpecificCommit(newHeadHash);
         // Update HEAD
         writeContents(HEAD, branchName);
+        Reflog.appendHead(oldHeadHash, newHeadHash, Reflog.CHECKOUT);
     }
 
     private static boolean hasUntrackedFileInTheWay(String commitHash) {
         List<String> untrackedFilenames = getUntrackedFilenameList();
         TreeMap<String, String> checkedOutBranchTrackedFilesMap = getObjectByHash(commitHash, Commit.class).getTrackedFilesMap();
         for (String filename: untrackedFilenames) {
-            if (checkedOutBranchTrackedFilesMap.containsKey(filename)) {
+            if (checkedOutBranchTrackedFilesMap.containsKey(filename) && SparseCheckout.isIncluded(filename)) {
                 return true;
             }
         }
@@ -450,7 +503,7 @@ public class Repository {
             return;
         }
         File  currentBranchHeadFile = getCurrentBranchHeadFile();
-        writeContents(newBranchHeadFile, readContentsAsString(currentBranchHeadFile));
+        updateBranchHead(branchName, readContentsAsString(currentBranchHeadFile), Reflog.BRANCH);
     }
 
     public static void rmBranch(String branchName) {
@@ -465,6 +518,7 @@ public class Repository {
         }
 
         branchHeadFile.delete();
+        Reflog.delete(branchName);
     }
 
     /**
@@ -472,11 +526,15 @@ public class Repository {
      * Also moves the current branch’s head to that commit node.
      *
      * The command is essentially checkout of an arbitrary commit that also changes the current branch head.
+     * The commit may also be named as REF@{N}, the value REF had N updates ago according to its reflog.
      * */
     public static void reset(String commitHash) {
+        String loggedCommitHash = Reflog.resolve(commitHash);
+        if (loggedCommitHash != null) {
+            commitHash = loggedCommitHash;
+        }
         checkoutSpecificCommit(commitHash);
-        File branchHeadFile = getCurrentBranchHeadFile();
-        writeContents(branchHeadFile, commitHash);
+        updateBranchHead(readContentsAsString(HEAD), resolveCommitHash(commitHash), Reflog.RESET);
     }
 
     public static void merge(String branchName) {
@@ -510,8 +568,9 @@ public class Repository {
         HashSet<String> targetBranchCommitHashSet = traversal(targetBranchHeadHash);
         if (targetBranchCommitHashSet.contains(currentHeadCommitHash)) {
             // Move HEAD branch to target commit
+            String currentBranchName = readContentsAsString(HEAD);
             checkoutBranch(branchName);
-            writeContents(currentBranchHeadFile, targetBranchHeadHash);
+            updateBranchHead(currentBranchName, targetBranchHeadHash, Reflog.FAST_FORWARD);
             System.out.println("Current branch fast-forwarded.");
             return;
         }
@@ -526,7 +585,14 @@ public class Repository {
         ArrayDeque<String> queue = new ArrayDeque<>();
         queue.add(currentHeadCommitHash);
         while (true) {
+            if (queue.isEmpty()) {
+                System.out.println("No split point is available in the shallow history.");
+                return;
+            }
             String currentCommitHash = queue.pop();
+            if (Shallow.isBoundary(currentCommitHash)) {
+                continue;
+            }
             Commit commit = getObjectByHash(currentCommitHash, Commit.class);
             String firstParentHash = commit.getFirstParentHash();
             String secondParentHash = commit.getSecondParentHash();
@@ -579,6 +645,8 @@ public class Repository {
                 if (!isFilePresentInTargetBranch) {
                     // remove
                     rm(filename);
+                } else if (!SparseCheckout.isIncluded(filename)) {
+                    stageBlob(filename, blobHashInTargetBranch);
                 } else {
                     checkoutFileOnSpecificCommit(targetBranchHeadHash, filename);
                     add(filename);
@@ -593,8 +661,8 @@ public class Repository {
                     continue;
                 }
 
-                String contentsOfFileInCurrentBranch = blobHashInCurrentBranch == null ? "" : readContentsAsString(getFileByHash(blobHashInCurrentBranch));
-                String contentsOfFileInTargetBranch = blobHashInTargetBranch ==  null ? "" : readContentsAsString(getFileByHash(blobHashInTargetBranch));
+                String contentsOfFileInCurrentBranch = blobHashInCurrentBranch == null ? "" : readBlobByHash(blobHashInCurrentBranch);
+                String contentsOfFileInTargetBranch = blobHashInTargetBranch ==  null ? "" : readBlobByHash(blobHashInTargetBranch);
                 writeContents(join(CWD, filename), "<<<<<<< HEAD\n" + contentsOfFileInCurrentBranch + "=======\n" + contentsOfFileInTargetBranch + ">>>>>>>\n");
                 add(filename);
                 hasConflict = true;
@@ -603,7 +671,7 @@ public class Repository {
 
         String currentBranchName = readContentsAsString(HEAD);
         commit("Merged " + branchName + " into " + currentBranchName+ ".", targetBranchHeadHash);
-        writeContents(targetBranchHeadFile, readContentsAsString(currentBranchHeadFile));
+        updateBranchHead(branchName, readContentsAsString(currentBranchHeadFile), Reflog.MERGE);
         if (hasConflict) {
             System.out.println("Encountered a merge conflict.");
         }
@@ -0,0 +1,133 @@
+package gitlet;
+
+import java.io.File;
+import java.util.*;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Implements the shallow command, which drops every commit more than a
+ *  given depth below all branch heads, together with the blobs only those
+ *  commits used.
+ *
+ *  The surviving commits whose parents were dropped are recorded in
+ *  .gitlet/shallow; history walks treat them as root commits.
+ *
+ *  @author Hao Chen
+ */
+public class Shallow {
+    /** The .gitlet/shallow file listing the boundary commits. */
+    public static final File SHALLOW = join(GITLET_DIR, "shallow");
+
+    /** Boundary commits, loaded on first use. */
+    private static TreeSet<String> boundary;
+
+    /** Returns true if the parents of commit COMMITHASH are not stored
+     *  locally, so history walks must stop there. */
+    static boolean isBoundary(String commitHash) {
+        return getBoundary().contains(commitHash);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeSet<String> getBoundary() {
+        if (boundary == null) {
+            boundary = SHALLOW.exists() ? readObject(SHALLOW, TreeSet.class) : new TreeSet<>();
+        }
+        return boundary;
+    }
+
+    public static void shallow(String depthArg) {
+        int depth;
+        try {
+            depth = Integer.parseInt(depthArg);
+        } catch (NumberFormatException excp) {
+            depth = 0;
+        }
+        if (depth <= 0) {
+            System.out.println("Depth must be a positive integer.");
+            return;
+        }
+
+        // Keep every commit within DEPTH first- or second-parent steps of
+        // some branch head. A commit reached again from a closer head is
+        // expanded again with the larger remaining depth.
+        HashMap<String, Integer> remainingDepth = new HashMap<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        ArrayDeque<Integer> queueDepths = new ArrayDeque<>();
+        for (String branchName : plainFilenamesIn(BRANCHES_DIR)) {
+            queue.add(readContentsAsString(join(BRANCHES_DIR, branchName)));
+            queueDepths.add(depth);
+        }
+        while (!queue.isEmpty()) {
+            String commitHash = queue.pop();
+            int remaining = queueDepths.pop();
+            if (remainingDepth.getOrDefault(commitHash, 0) >= remaining) {
+                continue;
+            }
+            remainingDepth.put(commitHash, remaining);
+            if (remaining == 1 || isBoundary(commitHash)) {
+                continue;
+            }
+            Commit commit = getObjectByHash(commitHash, Commit.class);
+            for (String parent : new String[]{commit.getFirstParentHash(), commit.getSecondParentHash()}) {
+                if (parent != null) {
+                    queue.add(parent);
+                    queueDepths.add(remaining - 1);
+                }
+            }
+        }
+        Set<String> kept = remainingDepth.keySet();
+        TreeSet<String> newBoundary = new TreeSet<>();
+        for (String commitHash : kept) {
+            if (isBoundary(commitHash)) {
+                newBoundary.add(commitHash);
+                continue;
+            }
+            Commit commit = getObjectByHash(commitHash, Commit.class);
+            String first = commit.getFirstParentHash();
+            String second = commit.getSecondParentHash();
+            if ((first != null && !kept.contains(first)) || (second != null && !kept.contains(second))) {
+                newBoundary.add(commitHash);
+            }
+        }
+
+        // Blobs survive if a kept commit or the staging area refers to them.
+        HashSet<String> keptBlobs = new HashSet<>();
+        for (String commitHash : kept) {
+            keptBlobs.addAll(getObjectByHash(commitHash, Commit.class).getTrackedFilesMap().values());
+        }
+        StagingArea stagingArea = readObject(INDEX, StagingArea.class);
+        keptBlobs.addAll(stagingArea.filesForAdditionMap.values());
+
+        HashSet<String> allCommits = getAllCommits();
+        HashSet<String> droppedBlobs = new HashSet<>();
+        for (String commitHash : allCommits) {
+            if (kept.contains(commitHash)) {
+                continue;
+            }
+            for (String blobHash : getObjectByHash(commitHash, Commit.class).getTrackedFilesMap().values()) {
+                if (!keptBlobs.contains(blobHash)) {
+                    droppedBlobs.add(blobHash);
+                }
+            }
+        }
+
+        int droppedCommits = 0;
+        for (String commitHash : allCommits) {
+            if (!kept.contains(commitHash)) {
+                deleteFileByHash(commitHash);
+                droppedCommits += 1;
+            }
+        }
+        for (String blobHash : droppedBlobs) {
+            deleteFileByHash(blobHash);
+        }
+        allCommits.retainAll(kept);
+        writeObject(COMMITS, allCommits);
+        writeObject(SHALLOW, newBoundary);
+        boundary = newBoundary;
+        // Cached blame may name commits that are gone now.
+        Blame.clearCache();
+        System.out.println("Dropped " + droppedCommits + " commits and " + droppedBlobs.size() + " blobs.");
+    }
+}
@@ -0,0 +1,112 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static gitlet.Repository.*;
+import static gitlet.Utils.*;
+
+/** Implements the sparse-checkout command. When a sparse-checkout file
+ *  exists, checkout, reset and merge only write tracked files whose names
+ *  match one of its glob patterns; the rest stay tracked in commits but
+ *  are never materialized in the working directory.
+ *
+ *  @author Hao Chen
+ */
+public class SparseCheckout {
+    /** The .gitlet/info/sparse-checkout file, one glob pattern per line. */
+    public static final File SPARSE_CHECKOUT = join(GITLET_DIR, "info", "sparse-checkout");
+
+    /** Matchers for the patterns in SPARSE_CHECKOUT, or null if sparse
+     *  checkout is disabled. Loaded on first use. */
+    private static List<PathMatcher> matchers;
+
+    /** True once MATCHERS reflects SPARSE_CHECKOUT. */
+    private static boolean loaded;
+
+    public static void sparseCheckout(String[] args) {
+        switch (args[1]) {
+            case "set":
+                StringBuilder patterns = new StringBuilder();
+                for (int i = 2; i < args.length; i++) {
+                    patterns.append(args[i]).append("\n");
+                }
+                SPARSE_CHECKOUT.getParentFile().mkdirs();
+                writeContents(SPARSE_CHECKOUT, patterns.toString());
+                loaded = false;
+                refreshWorkingDirectory();
+                break;
+            case "list":
+                if (SPARSE_CHECKOUT.exists()) {
+                    System.out.print(readContentsAsString(SPARSE_CHECKOUT));
+                }
+                break;
+            case "disable":
+                SPARSE_CHECKOUT.delete();
+                loaded = false;
+                refreshWorkingDirectory();
+                break;
+            default:
+                System.out.println("No sparse-checkout subcommand with that name exists.");
+                break;
+        }
+    }
+
+    /** Returns true if FILENAME belongs in the working directory. */
+    static boolean isIncluded(String filename) {
+        if (!loaded) {
+            loadPatterns();
+        }
+        if (matchers == null) {
+            return true;
+        }
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(Paths.get(filename))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void loadPatterns() {
+        matchers = null;
+        if (SPARSE_CHECKOUT.exists()) {
+            matchers = new ArrayList<>();
+            for (String pattern : readContentsAsString(SPARSE_CHECKOUT).split("\n")) {
+                if (!pattern.isEmpty()) {
+                    matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    /** Brings the working directory in line with the current patterns:
+     *  unmodified files that are no longer included are removed, and
+     *  included files missing from the working directory are written. */
+    private static void refreshWorkingDirectory() {
+        TreeMap<String, String> trackedFilesMap = getHeadCommit().getTrackedFilesMap();
+        StagingArea stagingArea = readObject(INDEX, StagingArea.class);
+        for (Map.Entry<String, String> entry : trackedFilesMap.entrySet()) {
+            String filename = entry.getKey();
+            File file = join(CWD, filename);
+            if (stagingArea.filesForAdditionMap.containsKey(filename)
+                    || stagingArea.filesForDeletionMap.containsKey(filename)) {
+                continue;
+            }
+            if (!isIncluded(filename)) {
+                if (file.exists() && getBlobHash(file).equals(entry.getValue())) {
+                    restrictedDelete(file);
+                }
+            } else if (!file.exists()) {
+                writeContents(file, readBlobByHash(entry.getValue()));
+            }
+        }
+    }
+}
@@ -6,17 +6,25 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Formatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /** Assorted utilities.
@@ -34,13 +42,16 @@ class Utils {
     /* SHA-1 HASH VALUES. */
 
     /** Returns the SHA-1 hash of the concatenation of VALS, which may
-     *  be any mixture of byte arrays and Strings. */
+     *  be any mixture of byte arrays, ByteBuffers and Strings. The
+     *  remaining bytes of a ByteBuffer are consumed. */
     static String sha1(Object... vals) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-1");
             for (Object val : vals) {
                 if (val instanceof byte[]) {
                     md.update((byte[]) val);
+                } else if (val instanceof ByteBuffer) {
+                    md.update((ByteBuffer) val);
                 } else if (val instanceof String) {
                     md.update(((String) val).getBytes(StandardCharsets.UTF_8));
                 } else {
@@ -237,9 +248,142 @@ class Utils {
         System.out.println();
     }
 
+    /* MEMORY-MAPPED OBJECT READS */
+
+    /** Objects at least this many bytes long are read through a memory
+     *  mapping; smaller ones are cheaper to copy onto the heap. */
+    static final int MAPPED_READ_THRESHOLD = 1 << 16;
+
+    /** Maximum number of object mappings kept open at once. */
+    private static final int MAPPED_CACHE_SIZE = 64;
+
+    /** Open read-only mappings of object files, keyed by path and kept in
+     *  least-recently-used order. Objects are immutable once written, so a
+     *  mapping stays valid until the object is rewritten or deleted.
+     *  Synchronized so that objects can be read from several threads. */
+    private static final Map<String, MappedByteBuffer> MAPPED_OBJECTS =
+        Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, MappedByteBuffer> eldest) {
+                return size() > MAPPED_CACHE_SIZE;
+            }
+        });
+
+    /** Maximum number of decoded commits kept in memory at once. */
+    private static final int DECODED_COMMIT_CACHE_SIZE = 4096;
+
+    /** Commits already deserialized, keyed by object path and kept in
+     *  least-recently-used order. Commits are small, so they never reach
+     *  the mapped read path; what history walks such as log, merge and
+     *  bisect repeat is decoding the same commit, which this cache
+     *  does once per command. */
+    private static final Map<String, Commit> DECODED_COMMITS =
+        Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Commit> eldest) {
+                return size() > DECODED_COMMIT_CACHE_SIZE;
+            }
+        });
+
+    /** Return a read-only buffer over the contents of the object FILE.
+     *  Large objects are served straight from a cached memory mapping
+     *  without copying; smaller ones are read once through the same
+     *  channel.  Throws IllegalArgumentException in case of problems. */
+    static ByteBuffer readObjectBuffer(File file) {
+        MappedByteBuffer mapped = MAPPED_OBJECTS.get(file.getPath());
+        if (mapped != null) {
+            return mapped.duplicate();
+        }
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("must be a normal file");
+        }
+        try (FileChannel channel =
+                 FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAPPED_READ_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    continue;
+                }
+                buffer.flip();
+                return buffer.asReadOnlyBuffer();
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("object too large to map");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        MAPPED_OBJECTS.put(file.getPath(), mapped);
+        return mapped.duplicate();
+    }
+
+    /** Drop FILE's cached mapping and decoded commit, if any. Must be
+     *  called before an object file is rewritten or deleted. The mapping
+     *  itself is not unmapped here: Java offers no way to do that, so it
+     *  is released when its buffer is garbage collected. */
+    static void forgetCachedObject(File file) {
+        MAPPED_OBJECTS.remove(file.getPath());
+        DECODED_COMMITS.remove(file.getPath());
+    }
+
+    /** An InputStream reading the remaining bytes of a ByteBuffer. */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /** Return an object of type T deserialized from the remaining bytes of
+     *  BUFFER, casting it to EXPECTEDCLASS. Throws IllegalArgumentException
+     *  in case of problems. */
+    static <T extends Serializable> T readObject(ByteBuffer buffer,
+                                                 Class<T> expectedClass) {
+        try (ObjectInputStream in =
+                 new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+            return expectedClass.cast(in.readObject());
+        } catch (IOException | ClassCastException
+                 | ClassNotFoundException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /* OBJECT STORE */
+
     /** Get File object by full or abbreviated hash */
     static File getFileByHash(String hash) {
         String dir = hash.substring(0, 2);
+        // A full hash names its file directly, no need to list the directory.
+        if (hash.length() == UID_LENGTH) {
+            return join(Repository.OBJECTS_DIR, dir, hash.substring(2));
+        }
         // abbr logic
         List<String> filenames = plainFilenamesIn(join(Repository.OBJECTS_DIR, dir));
 
@@ -253,8 +397,29 @@ class Utils {
         return join(Repository.OBJECTS_DIR, dir, hash.substring(2));
     }
 
+    /** Return the object with the given full or abbreviated hash, cast to
+     *  EXPECTEDCLASS. Commits come from a cache shared by every caller, so
+     *  they must not be modified. */
     static <T extends Serializable> T getObjectByHash(String hash, Class<T> expectedClass) {
-        return readObject(getFileByHash(hash), expectedClass);
+        File file = getFileByHash(hash);
+        if (expectedClass == Commit.class) {
+            Commit cached = DECODED_COMMITS.get(file.getPath());
+            if (cached != null) {
+                return expectedClass.cast(cached);
+            }
+        }
+        T object = readObject(readObjectBuffer(file), expectedClass);
+        if (object instanceof Commit) {
+            DECODED_COMMITS.put(file.getPath(), (Commit) object);
+        }
+        return object;
+    }
+
+    /** Return the contents of the blob with the given full or abbreviated
+     *  hash, decoded straight from the object buffer. */
+    static String readBlobByHash(String hash) {
+        ByteBuffer buffer = readObjectBuffer(getFileByHash(hash));
+        return StandardCharsets.UTF_8.decode(buffer).toString();
     }
 
     /** Compute hash value of object as file name and write to file system.
@@ -265,6 +430,7 @@ class Utils {
     static void writeObjectWithHashAsFilename(Serializable object, String hash) {
         File file = getFileByHash(hash);
         file.getParentFile().mkdirs();
+        forgetCachedObject(file);
         if (object instanceof String) {
             writeContents(file, object);
         } else {
@@ -273,11 +439,12 @@ class Utils {
     }
 
     static <T extends Serializable> T readObjectByHash(String hash, Class<T> expectedClass) {
-        return readObject(getFileByHash(hash), expectedClass);
+        return getObjectByHash(hash, expectedClass);
     }
 
     static void deleteFileByHash(String hash) {
         File file = getFileByHash(hash);
+        forgetCachedObject(file);
         file.delete();
     }
 }